@@ -0,0 +1,46 @@
+package com.gmail.pingkiuho.intermediateprogressbardrawable
+
+import android.graphics.Paint
+import android.os.Build
+import android.support.test.InstrumentationRegistry
+import android.support.test.runner.AndroidJUnit4
+import android.util.TypedValue
+
+import com.gmail.pingkiuho.intermediateprogressbardrawable.progressbar.IntermediateProgressBarDrawable
+
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertSame
+import org.junit.Assert.assertTrue
+import org.junit.Assume.assumeTrue
+import org.junit.Test
+import org.junit.runner.RunWith
+
+/**
+ * Inflates res/drawable-v24/ipb_inflated_spinner.xml, custom drawable classes in XML need API 24
+ */
+@RunWith(AndroidJUnit4::class)
+class DrawableInflationTest {
+    @Test
+    fun inflateFromXml() {
+        assumeTrue(Build.VERSION.SDK_INT >= Build.VERSION_CODES.N)
+        val context = InstrumentationRegistry.getTargetContext()
+
+        val drawable = context.getDrawable(R.drawable.ipb_inflated_spinner)
+        assertTrue(drawable is IntermediateProgressBarDrawable)
+        drawable as IntermediateProgressBarDrawable
+
+        val spec = drawable.spec
+        val strokeWidth = TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, 4f, context.resources.displayMetrics)
+        assertEquals(strokeWidth, spec.strokeWidthInPx, 1f)
+        assertEquals(Paint.Cap.ROUND, spec.strokeCap)
+        assertEquals(context.getColor(R.color.colorAccent), spec.colors[0])
+        assertFalse(spec.isGradient)
+        // inflating must not start the clock
+        assertFalse(drawable.isRunning)
+
+        // copies share the inflated spec
+        val copy = drawable.constantState!!.newDrawable() as IntermediateProgressBarDrawable
+        assertSame(spec, copy.spec)
+    }
+}
@@ -0,0 +1,70 @@
+package com.gmail.pingkiuho.intermediateprogressbardrawable
+
+import android.os.Debug
+import android.os.SystemClock
+import android.support.test.InstrumentationRegistry
+import android.support.test.runner.AndroidJUnit4
+import android.util.Log
+import android.view.ContextThemeWrapper
+import android.view.LayoutInflater
+import android.widget.LinearLayout
+
+import com.gmail.pingkiuho.intermediateprogressbardrawable.progressbar.IntermediateProgressBarDrawable
+
+import org.junit.Assert.assertEquals
+import org.junit.Test
+import org.junit.runner.RunWith
+
+/**
+ * Wall time and allocations of inflating an IntermediateProgressBar from XML, without starting it.
+ *
+ * Results are logged under the InflationBenchmark tag, run with
+ * `./gradlew connectedAndroidTest -Pandroid.testInstrumentationRunnerArguments.class=com.gmail.pingkiuho.intermediateprogressbardrawable.InflationBenchmark`.
+ */
+@RunWith(AndroidJUnit4::class)
+class InflationBenchmark {
+    companion object {
+        private const val TAG = "InflationBenchmark"
+        private const val WARMUP = 20
+        private const val ITERATIONS = 200
+    }
+
+    @Test
+    fun inflateIntermediateProgressBar() {
+        val instrumentation = InstrumentationRegistry.getInstrumentation()
+        instrumentation.runOnMainSync {
+            val context = ContextThemeWrapper(instrumentation.targetContext, R.style.AppTheme)
+            val inflater = LayoutInflater.from(context)
+
+            for (i in 0 until WARMUP) {
+                inflater.inflate(R.layout.activity_main, null)
+            }
+
+            @Suppress("DEPRECATION")
+            Debug.startAllocCounting()
+            @Suppress("DEPRECATION")
+            Debug.resetThreadAllocCount()
+            @Suppress("DEPRECATION")
+            Debug.resetThreadAllocSize()
+            val startNanos = SystemClock.elapsedRealtimeNanos()
+            var root: LinearLayout? = null
+            for (i in 0 until ITERATIONS) {
+                root = inflater.inflate(R.layout.activity_main, null) as LinearLayout
+            }
+            val elapsedNanos = SystemClock.elapsedRealtimeNanos() - startNanos
+            @Suppress("DEPRECATION")
+            val allocCount = Debug.getThreadAllocCount()
+            @Suppress("DEPRECATION")
+            val allocSize = Debug.getThreadAllocSize()
+            @Suppress("DEPRECATION")
+            Debug.stopAllocCounting()
+
+            Log.i(TAG, "inflate activity_main: ${elapsedNanos / ITERATIONS / 1000} us, "
+                    + "${allocCount / ITERATIONS} allocations, ${allocSize / ITERATIONS} bytes per inflation")
+
+            // inflating alone must not start any clock
+            assertEquals(0, IntermediateProgressBarDrawable.getAnimatingCount())
+            root!!.removeAllViews()
+        }
+    }
+}
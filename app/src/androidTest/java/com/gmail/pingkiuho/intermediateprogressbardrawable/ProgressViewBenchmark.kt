@@ -0,0 +1,97 @@
+package com.gmail.pingkiuho.intermediateprogressbardrawable
+
+import android.graphics.Bitmap
+import android.graphics.Canvas
+import android.os.Debug
+import android.os.SystemClock
+import android.support.test.InstrumentationRegistry
+import android.support.test.runner.AndroidJUnit4
+import android.util.Log
+import android.view.ContextThemeWrapper
+import android.view.View
+
+import com.gmail.pingkiuho.intermediateprogressbardrawable.progressbar.IntermediateProgressBar
+import com.gmail.pingkiuho.intermediateprogressbardrawable.progressbar.IntermediateProgressView
+
+import org.junit.Test
+import org.junit.runner.RunWith
+
+/**
+ * Measure, layout and draw of IntermediateProgressBar (a ProgressBar) against IntermediateProgressView (a plain
+ * View) with the same attributes, with wrap_content and exact measure specs.
+ *
+ * Results are logged under the ProgressViewBenchmark tag, run with
+ * `./gradlew connectedAndroidTest -Pandroid.testInstrumentationRunnerArguments.class=com.gmail.pingkiuho.intermediateprogressbardrawable.ProgressViewBenchmark`.
+ */
+@RunWith(AndroidJUnit4::class)
+class ProgressViewBenchmark {
+    companion object {
+        private const val TAG = "ProgressViewBenchmark"
+        private const val WARMUP = 200
+        private const val ITERATIONS = 2000
+        private const val PARENT_SIZE = 1080
+        private const val EXACT_SIZE_DP = 96
+    }
+
+    @Test
+    fun measureLayoutDraw() {
+        val instrumentation = InstrumentationRegistry.getInstrumentation()
+        instrumentation.runOnMainSync {
+            val context = ContextThemeWrapper(instrumentation.targetContext, R.style.AppTheme)
+            val progressBar = IntermediateProgressBar(context)
+            val progressView = IntermediateProgressView(context)
+            progressBar.start()
+            progressView.start()
+
+            val wrapSpec = View.MeasureSpec.makeMeasureSpec(PARENT_SIZE, View.MeasureSpec.AT_MOST)
+            val exactSize = (EXACT_SIZE_DP * context.resources.displayMetrics.density).toInt()
+            val exactSpec = View.MeasureSpec.makeMeasureSpec(exactSize, View.MeasureSpec.EXACTLY)
+            val bitmap = Bitmap.createBitmap(PARENT_SIZE, PARENT_SIZE, Bitmap.Config.ARGB_8888)
+            val canvas = Canvas(bitmap)
+
+            for ((mode, spec) in listOf("wrap_content" to wrapSpec, "exact" to exactSpec)) {
+                benchmark("IntermediateProgressBar $mode", progressBar, spec, canvas)
+                benchmark("IntermediateProgressView $mode", progressView, spec, canvas)
+            }
+
+            progressBar.stop()
+            progressView.stop()
+            bitmap.recycle()
+        }
+    }
+
+    private fun benchmark(name: String, view: View, measureSpec: Int, canvas: Canvas) {
+        for (i in 0 until WARMUP) {
+            measureLayoutDraw(view, measureSpec, canvas)
+        }
+
+        @Suppress("DEPRECATION")
+        Debug.startAllocCounting()
+        @Suppress("DEPRECATION")
+        Debug.resetThreadAllocCount()
+        @Suppress("DEPRECATION")
+        Debug.resetThreadAllocSize()
+        val startNanos = SystemClock.elapsedRealtimeNanos()
+        for (i in 0 until ITERATIONS) {
+            measureLayoutDraw(view, measureSpec, canvas)
+        }
+        val elapsedNanos = SystemClock.elapsedRealtimeNanos() - startNanos
+        @Suppress("DEPRECATION")
+        val allocCount = Debug.getThreadAllocCount()
+        @Suppress("DEPRECATION")
+        val allocSize = Debug.getThreadAllocSize()
+        @Suppress("DEPRECATION")
+        Debug.stopAllocCounting()
+
+        Log.i(TAG, "$name: ${elapsedNanos / ITERATIONS / 1000} us, "
+                + "${allocCount / ITERATIONS} allocations, ${allocSize / ITERATIONS} bytes per measure/layout/draw")
+    }
+
+    private fun measureLayoutDraw(view: View, measureSpec: Int, canvas: Canvas) {
+        // otherwise measure() returns the cached size for the same spec
+        view.forceLayout()
+        view.measure(measureSpec, measureSpec)
+        view.layout(0, 0, view.measuredWidth, view.measuredHeight)
+        view.draw(canvas)
+    }
+}
@@ -0,0 +1,234 @@
+package com.gmail.pingkiuho.intermediateprogressbardrawable.progressbar;
+
+import android.animation.TimeAnimator;
+import android.animation.ValueAnimator;
+import android.content.ContentResolver;
+import android.content.Context;
+import android.graphics.drawable.Drawable;
+import android.os.Build;
+import android.provider.Settings;
+import android.support.annotation.Nullable;
+import android.view.View;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The animation clock of the drawables, ticked by a per clock {@link TimeAnimator} or by the {@link FrameTicker}.
+ * <p>
+ * Pausing keeps the elapsed time, so the animation resumes at the same phase. The animation time is divided by the
+ * system animator duration scale, read on every start and again while ticking: every tick from API 26, where it is a
+ * field read, once a second before, where it is a settings query. The clock does not run at all while the scale is 0,
+ * and pauses itself when animations are turned off while it runs, until the next {@link #start()}.
+ * The backend is created on the first start. Must be used from the main thread.
+ */
+final class AnimationClock {
+    interface Listener {
+        /**
+         * @param elapsedNanos     animation time since the last reset, divided by the animator duration scale
+         * @param realElapsedNanos running time since the last reset, for frame rates and frame intervals
+         */
+        void onClockTick(long elapsedNanos, long realElapsedNanos);
+
+        /**
+         * Animations were turned off system-wide while the clock ran, it paused itself
+         */
+        void onAnimationsOff();
+    }
+
+    private static final long SCALE_CHECK_INTERVAL_NANOS = 1000000000L;
+
+    private static final AtomicInteger sRunningCount = new AtomicInteger();
+    // the application's, stored once for all clocks, for the duration scale before API 26. Set by the first drawable
+    // seen with a Context, so a drawable inflated from XML and never attached to a View before any other reads 1 there.
+    private static volatile ContentResolver sContentResolver;
+
+    private final Listener mListener;
+    private boolean mFrameTicker;
+    private TimeAnimator mAnimator;
+    private FrameTicker.Callback mFrameTickerCallback;
+    private boolean mRunning;
+    // time of the previous tick of this run, -1 until the first one
+    private long mLastTickNanos = -1;
+    private float mDurationScale = 1f;
+    // real elapsed time the duration scale was last read at
+    private long mScaleCheckedNanos;
+    private long mElapsedNanos;
+    private long mRealElapsedNanos;
+
+    AnimationClock(Listener listener) {
+        mListener = listener;
+    }
+
+    /**
+     * @return number of clocks ticking, i.e. started and not paused
+     */
+    static int getRunningCount() {
+        return sRunningCount.get();
+    }
+
+    /**
+     * Releases the backend if it changes, the clock must be started again
+     */
+    void setFrameTicker(boolean frameTicker) {
+        if (mFrameTicker != frameTicker) {
+            release();
+            mFrameTicker = frameTicker;
+        }
+    }
+
+    /**
+     * Keep the application's content resolver for the duration scale before API 26, once for all clocks
+     */
+    static void setContext(@Nullable Context context) {
+        if (sContentResolver == null && context != null) {
+            sContentResolver = context.getApplicationContext().getContentResolver();
+        }
+    }
+
+    /**
+     * {@link #setContext(Context)} from the View the drawable is attached to, if any
+     */
+    static void setContextFrom(@Nullable Drawable.Callback callback) {
+        if (sContentResolver == null && callback instanceof View) {
+            setContext(((View) callback).getContext());
+        }
+    }
+
+    boolean isRunning() {
+        return mRunning;
+    }
+
+    long getElapsedNanos() {
+        return mElapsedNanos;
+    }
+
+    /**
+     * Start ticking, or resume after {@link #pause()}
+     *
+     * @return false if animations are off system-wide, the clock is not started then
+     */
+    boolean start() {
+        if (mRunning) {
+            return true;
+        }
+        mDurationScale = readDurationScale();
+        if (mDurationScale <= 0f) {
+            return false;
+        }
+        mScaleCheckedNanos = mRealElapsedNanos;
+        // the first tick of a run only sets the reference time
+        mLastTickNanos = -1;
+        if (mFrameTicker) {
+            if (mFrameTickerCallback == null) {
+                mFrameTickerCallback = new FrameTicker.Callback() {
+                    @Override
+                    public void onFrame(long frameTimeNanos) {
+                        tick(frameTimeNanos);
+                    }
+                };
+            }
+            FrameTicker.getInstance().addCallback(mFrameTickerCallback);
+        } else {
+            if (mAnimator == null) {
+                mAnimator = new TimeAnimator();
+                mAnimator.setTimeListener(new TimeAnimator.TimeListener() {
+                    @Override
+                    public void onTimeUpdate(TimeAnimator animation, long totalTime, long deltaTime) {
+                        // unscaled and without the paused time
+                        tick(totalTime * 1000000L);
+                    }
+                });
+            }
+            if (mAnimator.isPaused()) {
+                mAnimator.resume();
+            } else {
+                mAnimator.start();
+            }
+        }
+        setRunning(true);
+        return true;
+    }
+
+    void pause() {
+        if (!mRunning) {
+            return;
+        }
+        if (mFrameTicker) {
+            FrameTicker.getInstance().removeCallback(mFrameTickerCallback);
+        } else {
+            mAnimator.pause();
+        }
+        setRunning(false);
+    }
+
+    /**
+     * Stop ticking and set the elapsed time back to 0, the backend is kept
+     */
+    void reset() {
+        if (mFrameTickerCallback != null) {
+            FrameTicker.getInstance().removeCallback(mFrameTickerCallback);
+        }
+        if (mAnimator != null) {
+            mAnimator.cancel();
+        }
+        setRunning(false);
+        mElapsedNanos = 0;
+        mRealElapsedNanos = 0;
+    }
+
+    /**
+     * {@link #reset()} and drop the backend
+     */
+    void release() {
+        reset();
+        if (mAnimator != null) {
+            mAnimator.setTimeListener(null);
+            mAnimator = null;
+        }
+        mFrameTickerCallback = null;
+    }
+
+    /**
+     * @return the system animator duration scale, 0 when animations are turned off in developer options, by
+     * battery saver or for accessibility
+     */
+    float readDurationScale() {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+            return ValueAnimator.getDurationScale();
+        }
+        ContentResolver contentResolver = sContentResolver;
+        if (contentResolver != null) {
+            return Settings.Global.getFloat(contentResolver, Settings.Global.ANIMATOR_DURATION_SCALE, 1f);
+        }
+        return 1f;
+    }
+
+    private void tick(long timeNanos) {
+        if (mLastTickNanos >= 0) {
+            long deltaNanos = Math.max(0, timeNanos - mLastTickNanos);
+            mRealElapsedNanos += deltaNanos;
+            mElapsedNanos += (long) (deltaNanos / mDurationScale);
+        }
+        mLastTickNanos = timeNanos;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O
+                || mRealElapsedNanos - mScaleCheckedNanos >= SCALE_CHECK_INTERVAL_NANOS) {
+            mScaleCheckedNanos = mRealElapsedNanos;
+            float durationScale = readDurationScale();
+            if (durationScale <= 0f) {
+                pause();
+                mListener.onAnimationsOff();
+                return;
+            }
+            // applies from the next tick, the elapsed time so far keeps its scale
+            mDurationScale = durationScale;
+        }
+        mListener.onClockTick(mElapsedNanos, mRealElapsedNanos);
+    }
+
+    private void setRunning(boolean running) {
+        if (mRunning != running) {
+            mRunning = running;
+            sRunningCount.addAndGet(running ? 1 : -1);
+        }
+    }
+}
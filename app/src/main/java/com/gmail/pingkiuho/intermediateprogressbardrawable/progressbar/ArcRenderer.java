@@ -0,0 +1,104 @@
+package com.gmail.pingkiuho.intermediateprogressbardrawable.progressbar;
+
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.graphics.RectF;
+
+/**
+ * Draws the arc of {@link IntermediateProgressBarDrawable}'s circular mode, see
+ * {@link IntermediateProgressBarDrawable.Builder#renderer(int)} for the backends and how one is picked.
+ */
+abstract class ArcRenderer {
+    /**
+     * @return the cap to stroke with, given the configured one
+     */
+    Paint.Cap getStrokeCap(Paint.Cap cap) {
+        return cap;
+    }
+
+    /**
+     * @return false to never anti-alias, true to leave it to the quality level
+     */
+    boolean isAntiAlias() {
+        return true;
+    }
+
+    /**
+     * @return true if the canvas is moved to the oval center and rotated by the start angle, shaders must then be
+     * set up for a center of (0, 0) and a start angle of 0
+     */
+    boolean isCanvasTransformed() {
+        return false;
+    }
+
+    abstract void draw(Canvas canvas, RectF oval, float startAngle, float sweepAngle, Paint paint);
+
+    /**
+     * {@link Canvas#drawArc(RectF, float, float, boolean, Paint)}, the default
+     */
+    static final class DrawArc extends ArcRenderer {
+        static final DrawArc INSTANCE = new DrawArc();
+
+        @Override
+        void draw(Canvas canvas, RectF oval, float startAngle, float sweepAngle, Paint paint) {
+            canvas.drawArc(oval, startAngle, sweepAngle, false, paint);
+        }
+    }
+
+    /**
+     * Butt caps without anti-aliasing, for spinners too small to show either
+     */
+    static final class Fast extends ArcRenderer {
+        static final Fast INSTANCE = new Fast();
+
+        @Override
+        Paint.Cap getStrokeCap(Paint.Cap cap) {
+            return Paint.Cap.BUTT;
+        }
+
+        @Override
+        boolean isAntiAlias() {
+            return false;
+        }
+
+        @Override
+        void draw(Canvas canvas, RectF oval, float startAngle, float sweepAngle, Paint paint) {
+            canvas.drawArc(oval, startAngle, sweepAngle, false, paint);
+        }
+    }
+
+    /**
+     * One reused {@link Path} of the arc centered at the origin and starting at 0 degrees, drawn with the canvas
+     * moved and rotated into place. The path is rebuilt in place whenever the sweep angle or the oval size changes,
+     * which is every frame while the sweep animates. Without sweep animation the renderer's cached tessellation of
+     * the thick, capped stroke is reused on every frame, also when the bounds only move.
+     */
+    static final class CachedPath extends ArcRenderer {
+        private final Path mPath = new Path();
+        private final RectF mOval = new RectF();
+        private float mSweepAngle = Float.NaN;
+
+        @Override
+        boolean isCanvasTransformed() {
+            return true;
+        }
+
+        @Override
+        void draw(Canvas canvas, RectF oval, float startAngle, float sweepAngle, Paint paint) {
+            float halfWidth = oval.width() / 2;
+            float halfHeight = oval.height() / 2;
+            if (sweepAngle != mSweepAngle || halfWidth != mOval.right || halfHeight != mOval.bottom) {
+                mPath.rewind();
+                mOval.set(-halfWidth, -halfHeight, halfWidth, halfHeight);
+                mPath.addArc(mOval, 0f, sweepAngle);
+                mSweepAngle = sweepAngle;
+            }
+            int saveCount = canvas.save();
+            canvas.translate(oval.centerX(), oval.centerY());
+            canvas.rotate(startAngle);
+            canvas.drawPath(mPath, paint);
+            canvas.restoreToCount(saveCount);
+        }
+    }
+}
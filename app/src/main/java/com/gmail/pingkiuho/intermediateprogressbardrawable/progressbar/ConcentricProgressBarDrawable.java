@@ -0,0 +1,489 @@
+package com.gmail.pingkiuho.intermediateprogressbardrawable.progressbar;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.ColorFilter;
+import android.graphics.Paint;
+import android.graphics.PixelFormat;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import android.graphics.drawable.Animatable;
+import android.graphics.drawable.Drawable;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.util.TypedValue;
+
+import com.gmail.pingkiuho.intermediateprogressbardrawable.R;
+import com.gmail.pingkiuho.intermediateprogressbardrawable.progressbar.model.ArcAnimation;
+import com.gmail.pingkiuho.intermediateprogressbardrawable.progressbar.model.ArcFrame;
+import com.gmail.pingkiuho.intermediateprogressbardrawable.progressbar.model.ArcSpec;
+
+import java.util.ArrayList;
+
+/**
+ * N concentric arcs in one drawable, e.g. one ring per loading stage. Each ring has its own color or gradient,
+ * speeds and phase, while all rings share one clock, one {@link Paint} and at most one invalidation per frame.
+ * Each ring steps its own {@link ArcAnimation}, the frame step of {@link IntermediateProgressBarDrawable}.
+ * The clock is the one of {@link IntermediateProgressBarDrawable}, so it pauses while invisible and follows the
+ * system animator duration scale, with a static frame while animations are off.
+ * <p>
+ * The first ring added is the outermost one.
+ */
+public class ConcentricProgressBarDrawable extends Drawable implements Animatable {
+    public static final String TAG = ConcentricProgressBarDrawable.class.getSimpleName();
+
+    private final RingState[] mRings;
+    private final float mStrokeWidthInPx;
+    private final Paint.Cap mStrokeCap;
+    private final float mRingSpacingInPx;
+    private final int mSize;
+
+    private final Paint mPaint;
+    // kept apart from the paint, setColor() for the solid rings resets the paint alpha
+    private int mAlpha = 255;
+    private final RectF mBoundsF = new RectF();
+
+    private boolean mRunning;
+    private final AnimationClock mClock = new AnimationClock(new AnimationClock.Listener() {
+        @Override
+        public void onClockTick(long elapsedNanos, long realElapsedNanos) {
+            ConcentricProgressBarDrawable.this.onClockTick(elapsedNanos, realElapsedNanos);
+        }
+
+        @Override
+        public void onAnimationsOff() {
+            if (isEnding()) {
+                // the rest of the end animation would not be shown
+                finishProgressiveStop();
+            } else {
+                showStaticFrame();
+            }
+        }
+    });
+    private IntermediateProgressBarDrawable.OnStopListener mOnStopListener;
+
+    public static Builder builder(Context context) {
+        return new Builder(context);
+    }
+
+    private ConcentricProgressBarDrawable(RingState[] rings, float strokeWidthInPx, Paint.Cap strokeCap,
+                                          float ringSpacingInPx, int size) {
+        mRings = rings;
+        mStrokeWidthInPx = strokeWidthInPx;
+        mStrokeCap = strokeCap;
+        mRingSpacingInPx = ringSpacingInPx;
+        mSize = size;
+
+        mPaint = new Paint();
+        mPaint.setFlags(Paint.ANTI_ALIAS_FLAG);
+        mPaint.setStyle(Paint.Style.STROKE);
+        mPaint.setStrokeWidth(strokeWidthInPx);
+        mPaint.setStrokeCap(strokeCap);
+    }
+
+    public int getRingCount() {
+        return mRings.length;
+    }
+
+    @Override
+    public void start() {
+        mRunning = true;
+        reset();
+        if (isVisible()) {
+            startClock();
+        }
+    }
+
+    @Override
+    public void stop() {
+        mRunning = false;
+        reset();
+        mClock.release();
+        for (RingState ring : mRings) {
+            ring.gradientShaderCache = null;
+        }
+        invalidateSelf();
+    }
+
+    /**
+     * Shrink every ring toward its head, then stop. If already shrinking, the listener is called with the stop in
+     * progress.
+     */
+    public void progressiveStop(@Nullable IntermediateProgressBarDrawable.OnStopListener listener) {
+        if (!isRunning()) {
+            return;
+        } else if (isEnding()) {
+            mOnStopListener = IntermediateProgressBarDrawable.chainListeners(mOnStopListener, listener);
+            return;
+        } else if (mClock.readDurationScale() <= 0f) {
+            // the end animation would not be shown
+            stop();
+            if (listener != null) {
+                listener.onStop();
+            }
+            return;
+        }
+        mOnStopListener = listener;
+        // the end animation starts from the next frame
+        for (RingState ring : mRings) {
+            ring.animation.startEnding();
+        }
+    }
+
+    private boolean isEnding() {
+        return mRings[0].animation.isEnding();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return mRunning;
+    }
+
+    /**
+     * Pause the clock while invisible, the animation resumes at the same phase once visible again
+     */
+    @Override
+    public boolean setVisible(boolean visible, boolean restart) {
+        boolean changed = super.setVisible(visible, restart);
+        if (isRunning()) {
+            if (visible) {
+                startClock();
+            } else {
+                mClock.pause();
+            }
+        }
+        return changed;
+    }
+
+    @Override
+    public void draw(@NonNull Canvas canvas) {
+        if (!isRunning()) {
+            return;
+        }
+        for (RingState ring : mRings) {
+            if (ring.rect.isEmpty()) {
+                continue;
+            }
+            ArcFrame frame = ring.animation.getFrame();
+            if (ring.gradient) {
+                if (ring.gradientShaderCache == null) {
+                    ring.gradientShaderCache = new GradientShaderCache(ring.colors, GradientShaderCache.DEFAULT_ANGLE_TOLERANCE);
+                }
+                mPaint.setShader(ring.gradientShaderCache.obtain(frame.startAngle, frame.sweepAngle, ring.rect.centerX(), ring.rect.centerY()));
+                mPaint.setAlpha(mAlpha);
+            } else {
+                mPaint.setShader(null);
+                mPaint.setColor(ring.colors[0]);
+                mPaint.setAlpha(Color.alpha(ring.colors[0]) * mAlpha / 255);
+            }
+            canvas.drawArc(ring.rect, frame.startAngle, frame.sweepAngle, false, mPaint);
+        }
+    }
+
+    @Override
+    public void setAlpha(int alpha) {
+        mAlpha = alpha;
+        invalidateSelf();
+    }
+
+    @Override
+    public int getAlpha() {
+        return mAlpha;
+    }
+
+    @Override
+    public void setColorFilter(@Nullable ColorFilter colorFilter) {
+        mPaint.setColorFilter(colorFilter);
+    }
+
+    @Override
+    public int getOpacity() {
+        return PixelFormat.TRANSLUCENT;
+    }
+
+    @Override
+    protected void onBoundsChange(Rect bounds) {
+        super.onBoundsChange(bounds);
+
+        float side = Math.min(bounds.width(), bounds.height());
+        if (mSize > 0 && side > mSize) {
+            side = mSize;
+        }
+        mBoundsF.set(bounds.exactCenterX() - side / 2, bounds.exactCenterY() - side / 2,
+                bounds.exactCenterX() + side / 2, bounds.exactCenterY() + side / 2);
+
+        for (int i = 0; i < mRings.length; i++) {
+            RingState ring = mRings[i];
+            float inset = mStrokeWidthInPx / 2 + i * (mStrokeWidthInPx + mRingSpacingInPx);
+            ring.rect.set(mBoundsF);
+            ring.rect.inset(inset, inset);
+            if (ring.rect.width() <= 0f) {
+                ring.rect.setEmpty();
+                continue;
+            }
+            // same stroke cap adjustment as IntermediateProgressBarDrawable, per ring diameter
+            ring.animation.setGeometry(ring.baseSpec.getMinSweepAngle(), ring.baseSpec.getMaxSweepAngle(),
+                    mStrokeWidthInPx, ring.rect.width(), mStrokeCap.equals(Paint.Cap.BUTT), ring.gradient);
+        }
+    }
+
+    private void reset() {
+        mClock.reset();
+        for (RingState ring : mRings) {
+            ring.animation.reset();
+        }
+    }
+
+    private void startClock() {
+        AnimationClock.setContextFrom(getCallback());
+        if (mClock.isRunning() || mClock.start()) {
+            return;
+        }
+        showStaticFrame();
+    }
+
+    /**
+     * Animations are off, show every ring at its max sweep instead of spinning
+     */
+    private void showStaticFrame() {
+        for (RingState ring : mRings) {
+            ring.animation.showStaticFrame(0f);
+        }
+        invalidateSelf();
+    }
+
+    /**
+     * @param realElapsedNanos elapsed time without the animator duration scale, for the frame rate limit
+     */
+    private void onClockTick(long elapsedNanos, long realElapsedNanos) {
+        boolean ended = true;
+        boolean changed = false;
+        for (RingState ring : mRings) {
+            // a ring that already shrunk keeps returning TICK_ENDED with the same empty frame
+            boolean shown = ring.animation.getFrame().endRatio > 0f;
+            int result = ring.animation.tick(elapsedNanos, elapsedNanos, realElapsedNanos, 0f, ring.rect.width() / 2);
+            if (result != ArcAnimation.TICK_ENDED) {
+                ended = false;
+            }
+            if (result == ArcAnimation.TICK_DRAW || (result == ArcAnimation.TICK_ENDED && shown)) {
+                changed = true;
+            }
+        }
+        if (ended) {
+            // every ring fully shrunk after a progressive stop
+            finishProgressiveStop();
+            return;
+        }
+        if (changed) {
+            // one invalidation for all rings
+            invalidateSelf();
+        }
+    }
+
+    private void finishProgressiveStop() {
+        IntermediateProgressBarDrawable.OnStopListener listener = mOnStopListener;
+        mOnStopListener = null;
+        stop();
+        if (listener != null) {
+            listener.onStop();
+        }
+    }
+
+    private static class RingState {
+        final ArcSpec baseSpec;
+        final int[] colors;
+        final boolean gradient;
+        final RectF rect = new RectF();
+        final ArcAnimation animation = new ArcAnimation();
+        GradientShaderCache gradientShaderCache;
+
+        RingState(ArcSpec baseSpec, int[] colors, boolean gradient, long phaseNanos, float minInvalidatePixels) {
+            this.baseSpec = baseSpec;
+            this.colors = colors;
+            this.gradient = gradient;
+            animation.setSpec(baseSpec);
+            animation.setPhaseNanos(phaseNanos);
+            animation.setMinMovePixels(minInvalidatePixels);
+        }
+    }
+
+    /**
+     * One ring, options named and defaulted like {@link IntermediateProgressBarDrawable.Builder}
+     */
+    public static class Ring {
+        private boolean rotation = true;
+        private boolean sweep = true;
+        private long rotationDuration = 3000;
+        private long sweepDuration = 1200;
+        private float rotationSpeed = 1f;
+        private float sweepSpeed = 1f;
+        private float minSweepAngle = 25f;
+        private float maxSweepAngle = 335f;
+        private float startAtDegree = 0f;
+        private long phase;
+        private int[] colors;
+        private boolean gradient;
+
+        public Ring rotation(boolean enable) {
+            rotation = enable;
+            return this;
+        }
+
+        public Ring sweep(boolean enable) {
+            sweep = enable;
+            return this;
+        }
+
+        public Ring rotationDuration(long duration) {
+            rotationDuration = duration;
+            return this;
+        }
+
+        public Ring sweepDuration(long duration) {
+            sweepDuration = duration;
+            return this;
+        }
+
+        public Ring rotationSpeed(float speed) {
+            rotationSpeed = speed;
+            return this;
+        }
+
+        public Ring sweepSpeed(float speed) {
+            sweepSpeed = speed;
+            return this;
+        }
+
+        public Ring minSweepAngle(float angle) {
+            minSweepAngle = Math.max(0f, Math.min(angle, 360f));
+            return this;
+        }
+
+        public Ring maxSweepAngle(float angle) {
+            maxSweepAngle = Math.max(0f, Math.min(angle, 360f));
+            return this;
+        }
+
+        public Ring startAtDegree(float degree) {
+            startAtDegree = degree;
+            return this;
+        }
+
+        /**
+         * @param millis how far ahead this ring is in its animation, to keep rings from moving in lockstep
+         */
+        public Ring phase(long millis) {
+            phase = millis;
+            return this;
+        }
+
+        public Ring color(int color) {
+            colors = new int[]{color};
+            gradient = false;
+            return this;
+        }
+
+        public Ring gradient(int firstColor, int secondColor, int... otherColors) {
+            colors = new int[otherColors.length + 2];
+            colors[0] = firstColor;
+            colors[1] = secondColor;
+            System.arraycopy(otherColors, 0, colors, 2, otherColors.length);
+            gradient = true;
+            return this;
+        }
+
+        private RingState toState(int defaultColor, float minInvalidatePixels) {
+            int[] ringColors;
+            boolean ringGradient = gradient && colors != null && colors.length > 1;
+            if (colors == null) {
+                ringColors = new int[]{defaultColor};
+            } else if (ringGradient) {
+                // The order of colors need to be reversed since the end of the gradient will be the "head" of stroke
+                ringColors = new int[colors.length];
+                for (int i = 0; i < colors.length; i++) {
+                    ringColors[i] = colors[colors.length - 1 - i];
+                }
+            } else {
+                ringColors = colors.clone();
+            }
+            ArcSpec spec = new ArcSpec.Builder()
+                    .sweep(sweep)
+                    .rotation(rotation)
+                    .rotationDurationNanos((long) (rotationDuration / rotationSpeed) * 1000000L)
+                    .sweepDurationNanos((long) (sweepDuration / sweepSpeed) * 1000000L)
+                    .startAtDegree(startAtDegree)
+                    .minSweepAngle(minSweepAngle)
+                    .maxSweepAngle(maxSweepAngle)
+                    .build();
+            return new RingState(spec, ringColors, ringGradient, phase * 1000000L, minInvalidatePixels);
+        }
+    }
+
+    public static class Builder {
+        private Context context;
+        private final ArrayList<Ring> rings = new ArrayList<>();
+        private float strokeWidthInPx = 0f;
+        private Paint.Cap strokeCap = Paint.Cap.ROUND;
+        private float ringSpacingInPx = 0f;
+        private int size;
+        private float minInvalidatePixels = 0.5f;
+
+        public Builder(Context context) {
+            this.context = context;
+        }
+
+        public Builder addRing(Ring ring) {
+            rings.add(ring);
+            return this;
+        }
+
+        public Builder strokeWidth(float px) {
+            strokeWidthInPx = px;
+            return this;
+        }
+
+        public Builder strokeCap(Paint.Cap capStyle) {
+            strokeCap = capStyle;
+            return this;
+        }
+
+        /**
+         * @param px gap between two rings
+         */
+        public Builder ringSpacing(float px) {
+            ringSpacingInPx = px;
+            return this;
+        }
+
+        public Builder size(int px) {
+            size = px;
+            return this;
+        }
+
+        /**
+         * @see IntermediateProgressBarDrawable.Builder#minInvalidatePixels(float)
+         */
+        public Builder minInvalidatePixels(float px) {
+            minInvalidatePixels = px;
+            return this;
+        }
+
+        public ConcentricProgressBarDrawable build() {
+            if (rings.isEmpty()) {
+                throw new IllegalStateException("At least one ring is required");
+            }
+            // Apply app theme primary color to rings without a color
+            TypedValue typedValue = new TypedValue();
+            context.getTheme().resolveAttribute(R.attr.colorPrimary, typedValue, true);
+
+            RingState[] states = new RingState[rings.size()];
+            for (int i = 0; i < states.length; i++) {
+                states[i] = rings.get(i).toState(typedValue.data, minInvalidatePixels);
+            }
+            ConcentricProgressBarDrawable drawable = new ConcentricProgressBarDrawable(states, strokeWidthInPx, strokeCap, ringSpacingInPx, size);
+            AnimationClock.setContext(context);
+            return drawable;
+        }
+    }
+}
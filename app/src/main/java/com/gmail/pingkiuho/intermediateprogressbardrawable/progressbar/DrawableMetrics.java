@@ -0,0 +1,111 @@
+package com.gmail.pingkiuho.intermediateprogressbardrawable.progressbar;
+
+/**
+ * Counters of one {@link IntermediateProgressBarDrawable}, collected only while metrics are enabled with
+ * {@link IntermediateProgressBarDrawable#setMetricsEnabled(boolean)}.
+ * <p>
+ * Read a copy through {@link IntermediateProgressBarDrawable#getMetrics(DrawableMetrics)}, the instance can be
+ * reused for every read. Counters are cumulative until {@link IntermediateProgressBarDrawable#resetMetrics()}.
+ */
+public final class DrawableMetrics {
+    long clockTicks;
+    long invalidations;
+    long framesDrawn;
+    long drawNanos;
+    long shaderNanos;
+    long shaderBuilds;
+    long clockStarts;
+    long cycles;
+
+    /**
+     * @return frames computed by the clock, including the ones skipped without invalidating
+     */
+    public long getClockTicks() {
+        return clockTicks;
+    }
+
+    /**
+     * @return invalidateSelf() calls requested by the clock
+     */
+    public long getInvalidations() {
+        return invalidations;
+    }
+
+    /**
+     * @return draw() calls that drew the arc
+     */
+    public long getFramesDrawn() {
+        return framesDrawn;
+    }
+
+    /**
+     * @return total time spent in draw(), including the gradient shader
+     */
+    public long getDrawNanos() {
+        return drawNanos;
+    }
+
+    /**
+     * @return total time spent obtaining the gradient shader, 0 for a solid color
+     */
+    public long getShaderNanos() {
+        return shaderNanos;
+    }
+
+    /**
+     * @return gradient shaders built, a steady animation stops building once every sweep bucket is cached
+     */
+    public long getShaderBuilds() {
+        return shaderBuilds;
+    }
+
+    /**
+     * @return times the clock was started or resumed, e.g. by start() and by becoming visible again
+     */
+    public long getClockStarts() {
+        return clockStarts;
+    }
+
+    /**
+     * @return completed sweep cycles (appear and disappear)
+     */
+    public long getCycles() {
+        return cycles;
+    }
+
+    void set(DrawableMetrics other) {
+        clockTicks = other.clockTicks;
+        invalidations = other.invalidations;
+        framesDrawn = other.framesDrawn;
+        drawNanos = other.drawNanos;
+        shaderNanos = other.shaderNanos;
+        shaderBuilds = other.shaderBuilds;
+        clockStarts = other.clockStarts;
+        cycles = other.cycles;
+    }
+
+    void reset() {
+        clockTicks = 0;
+        invalidations = 0;
+        framesDrawn = 0;
+        drawNanos = 0;
+        shaderNanos = 0;
+        shaderBuilds = 0;
+        clockStarts = 0;
+        cycles = 0;
+    }
+
+    @Override
+    public String toString() {
+        return "DrawableMetrics{"
+                + "clockTicks=" + clockTicks
+                + ", invalidations=" + invalidations
+                + ", framesDrawn=" + framesDrawn
+                + ", drawNanos=" + drawNanos
+                + ", shaderNanos=" + shaderNanos
+                + ", shaderBuilds=" + shaderBuilds
+                + ", clockStarts=" + clockStarts
+                + ", cycles=" + cycles
+                + '}';
+    }
+}
@@ -0,0 +1,102 @@
+package com.gmail.pingkiuho.intermediateprogressbardrawable.progressbar;
+
+import android.view.Choreographer;
+
+import java.util.ArrayList;
+
+/**
+ * Process-wide frame ticker, a single {@link Choreographer.FrameCallback} drives every registered {@link Callback}.
+ * The callback is only posted while there is at least one registered callback.
+ * <p>
+ * Must be used from the main thread.
+ */
+public final class FrameTicker implements Choreographer.FrameCallback {
+    public static final String TAG = FrameTicker.class.getSimpleName();
+
+    public interface Callback {
+        void onFrame(long frameTimeNanos);
+    }
+
+    private static FrameTicker sInstance;
+
+    private final Choreographer mChoreographer;
+    private final ArrayList<Callback> mCallbacks = new ArrayList<>();
+    private boolean mPosted;
+    private boolean mDispatching;
+    private boolean mHasRemovedCallbacks;
+
+    public static FrameTicker getInstance() {
+        if (sInstance == null) {
+            sInstance = new FrameTicker(Choreographer.getInstance());
+        }
+        return sInstance;
+    }
+
+    private FrameTicker(Choreographer choreographer) {
+        mChoreographer = choreographer;
+    }
+
+    public void addCallback(Callback callback) {
+        if (mCallbacks.contains(callback)) {
+            return;
+        }
+        mCallbacks.add(callback);
+        if (!mPosted) {
+            mPosted = true;
+            mChoreographer.postFrameCallback(this);
+        }
+    }
+
+    public void removeCallback(Callback callback) {
+        int index = mCallbacks.indexOf(callback);
+        if (index < 0) {
+            return;
+        }
+        if (mDispatching) {
+            // keep indices stable while dispatching, the empty slots are compacted once the frame is done
+            mCallbacks.set(index, null);
+            mHasRemovedCallbacks = true;
+        } else {
+            mCallbacks.remove(index);
+        }
+    }
+
+    public int getCallbackCount() {
+        int count = 0;
+        for (int i = 0; i < mCallbacks.size(); i++) {
+            if (mCallbacks.get(i) != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        mPosted = false;
+        mDispatching = true;
+        // callbacks added during dispatch will be ticked from the next frame
+        int size = mCallbacks.size();
+        for (int i = 0; i < size; i++) {
+            Callback callback = mCallbacks.get(i);
+            if (callback != null) {
+                callback.onFrame(frameTimeNanos);
+            }
+        }
+        mDispatching = false;
+
+        if (mHasRemovedCallbacks) {
+            for (int i = mCallbacks.size() - 1; i >= 0; i--) {
+                if (mCallbacks.get(i) == null) {
+                    mCallbacks.remove(i);
+                }
+            }
+            mHasRemovedCallbacks = false;
+        }
+
+        if (!mCallbacks.isEmpty() && !mPosted) {
+            mPosted = true;
+            mChoreographer.postFrameCallback(this);
+        }
+    }
+}
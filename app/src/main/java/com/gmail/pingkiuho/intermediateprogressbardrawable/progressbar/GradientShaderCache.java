@@ -0,0 +1,81 @@
+package com.gmail.pingkiuho.intermediateprogressbardrawable.progressbar;
+
+import android.graphics.Matrix;
+import android.graphics.SweepGradient;
+
+import com.gmail.pingkiuho.intermediateprogressbardrawable.progressbar.model.GradientStops;
+
+/**
+ * Caches the {@link SweepGradient}s used by the gradient mode of {@link IntermediateProgressBarDrawable}.
+ * <p>
+ * Sweep angles are quantized into buckets of {@code angleTolerance} degrees, and each bucket owns one shader
+ * centered at the origin. Rotation and translation are applied through a single reused local matrix, so a
+ * steady animation does not allocate once every visited bucket has been built.
+ * <p>
+ * A sweep animation visits nearly every bucket over a few cycles, so the shaders are kept for good rather than in an
+ * LRU, which would rebuild one on most frames. Each drawable retains up to {@code ceil(360 / angleTolerance) + 1}
+ * shaders: {@link #MAX_SHADERS} at the default and minimum tolerance of 6 degrees. All of them share one color array.
+ */
+class GradientShaderCache {
+    static final float MIN_ANGLE_TOLERANCE = 6f;
+    static final float DEFAULT_ANGLE_TOLERANCE = MIN_ANGLE_TOLERANCE;
+    /**
+     * Shaders retained per cache at most, at {@link #MIN_ANGLE_TOLERANCE}
+     */
+    static final int MAX_SHADERS = (int) Math.ceil(360f / MIN_ANGLE_TOLERANCE) + 1;
+
+    private final int[] mShaderColors;
+    private final float mAngleTolerance;
+    private final SweepGradient[] mShaders;
+    private final Matrix mMatrix = new Matrix();
+    private int mBuildCount;
+
+    GradientShaderCache(int[] colors, float angleTolerance) {
+        mAngleTolerance = Math.max(angleTolerance, MIN_ANGLE_TOLERANCE);
+        mShaders = new SweepGradient[(int) Math.ceil(360f / mAngleTolerance) + 1];
+
+        /*
+        For some reason, gradient's color positions need to have 0f, 1f position in previewer (not sure in actually device)
+        But the position calculation will ignore this two position in order to make even color section
+        Thus, duplicating the first and last color can fix this issues
+         */
+        mShaderColors = new int[colors.length + 2];
+        mShaderColors[0] = colors[0];
+        mShaderColors[mShaderColors.length - 1] = colors[colors.length - 1];
+        System.arraycopy(colors, 0, mShaderColors, 1, colors.length);
+    }
+
+    /**
+     * @return a shader whose colors cover the arc from {@code startAngle} to {@code startAngle + sweepAngle},
+     * with the arc head exact and the tail within half of the angle tolerance
+     */
+    SweepGradient obtain(float startAngle, float sweepAngle, float centerX, float centerY) {
+        int bucket = Math.round(Math.max(0f, Math.min(sweepAngle, 360f)) / mAngleTolerance);
+        if (bucket >= mShaders.length) {
+            bucket = mShaders.length - 1;
+        }
+        float bucketSweepAngle = Math.min(bucket * mAngleTolerance, 360f);
+
+        SweepGradient shader = mShaders[bucket];
+        if (shader == null) {
+            shader = new SweepGradient(0f, 0f, mShaderColors, calculatePositions(bucketSweepAngle));
+            mShaders[bucket] = shader;
+            mBuildCount++;
+        }
+
+        mMatrix.setRotate(GradientStops.rotation(startAngle, sweepAngle, bucketSweepAngle));
+        mMatrix.postTranslate(centerX, centerY);
+        shader.setLocalMatrix(mMatrix);
+        return shader;
+    }
+
+    int getBuildCount() {
+        return mBuildCount;
+    }
+
+    private float[] calculatePositions(float sweepAngle) {
+        float[] positions = new float[mShaderColors.length];
+        GradientStops.computePositions(sweepAngle, mShaderColors.length - 2, positions);
+        return positions;
+    }
+}
@@ -2,16 +2,14 @@ package com.gmail.pingkiuho.intermediateprogressbardrawable.progressbar;
 
 import android.content.Context;
 import android.content.res.TypedArray;
-import android.graphics.Color;
-import android.graphics.Paint;
+import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 import android.util.AttributeSet;
-import android.util.Log;
+import android.view.View;
 import android.view.ViewGroup;
 import android.widget.ProgressBar;
 
 import com.gmail.pingkiuho.intermediateprogressbardrawable.R;
-import com.gmail.pingkiuho.intermediateprogressbardrawable.util.DimensionUtil;
 
 /**
  * Created by Brian Ho on 28/3/2018.
@@ -20,7 +18,14 @@ import com.gmail.pingkiuho.intermediateprogressbardrawable.util.DimensionUtil;
 public class IntermediateProgressBar extends ProgressBar {
     public static final String TAG = IntermediateProgressBar.class.getSimpleName();
 
-    private IntermediateProgressBarDrawable mDrawable;
+    private final IntermediateProgressBarSpec mSpec;
+    // with ipb_pooled the drawable is taken from IntermediateProgressBarDrawablePool while attached, null otherwise
+    private final boolean mPooled;
+    private volatile IntermediateProgressBarDrawable mDrawable;
+    private boolean mStartRequested = true;
+    private boolean mAttached;
+    private boolean mDeterminate;
+    private volatile float mProgress;
 
     public IntermediateProgressBar(Context context) {
         this(context, null);
@@ -37,63 +42,129 @@ public class IntermediateProgressBar extends ProgressBar {
 
         IntermediateProgressBarDrawable.Builder builder = new IntermediateProgressBarDrawable.Builder(context);
 
-        int color = styleArray.getColor(R.styleable.IntermediateProgressBar_ipb_color, R.attr.colorPrimary);
-        CharSequence[] gradient = styleArray.getTextArray(R.styleable.IntermediateProgressBar_ipb_gradientColorArray);
-        if (gradient != null) {
-            try {
-                if (gradient.length > 1) {
-                    int firstColor = Color.parseColor(gradient[0].toString());
-                    int secondColor = Color.parseColor(gradient[1].toString());
-                    int[] otherColors = new int[gradient.length - 2];
-                    for (int i = 0; i < gradient.length - 2; i++) {
-                        otherColors[i] = Color.parseColor(gradient[i + 2].toString());
-                    }
-                    builder.gradient(firstColor, secondColor, otherColors);
-                } else {
-                    builder.color(Color.parseColor(gradient[0].toString()));
-                }
-            } catch (Exception e) {
-                Log.e(TAG, "Invalid color code");
-            }
-        } else {
-            builder.color(color);
-        }
-
-        builder.sweepSpeed(styleArray.getFloat(R.styleable.IntermediateProgressBar_ipb_sweepSpeed, 1f));
-        builder.rotationSpeed(styleArray.getFloat(R.styleable.IntermediateProgressBar_ipb_rotationSpeed, 1f));
-        builder.minSweepAngle(styleArray.getFloat(R.styleable.IntermediateProgressBar_ipb_minSweepAngle, 0f));
-        builder.maxSweepAngle(styleArray.getFloat(R.styleable.IntermediateProgressBar_ipb_maxSweepAngle, 360f));
-        builder.startAtDegree(styleArray.getFloat(R.styleable.IntermediateProgressBar_ipb_startAngle, 0f));
-        builder.sweep(styleArray.getBoolean(R.styleable.IntermediateProgressBar_ipb_sweep, true));
-        builder.strokeWidth(styleArray.getDimensionPixelSize(R.styleable.IntermediateProgressBar_ipb_strokeWidth, (int) DimensionUtil.dpToPx(context, 8)));
-        switch (styleArray.getInt(R.styleable.IntermediateProgressBar_ipb_strokeCap, 0)) {
-            case 1:
-                builder.strokeCap(Paint.Cap.ROUND);
-                break;
-            case 2:
-                builder.strokeCap(Paint.Cap.SQUARE);
-                break;
-            default:
-                builder.strokeCap(Paint.Cap.BUTT);
-        }
-        builder.size(styleArray.getDimensionPixelSize(R.styleable.IntermediateProgressBar_ipb_size, 72));
+        builder.applyAttributes(styleArray, context.getResources());
+        mPooled = styleArray.getBoolean(R.styleable.IntermediateProgressBar_ipb_pooled, false);
 
         styleArray.recycle();
 
-        mDrawable = builder.build();
-        setIndeterminateDrawable(mDrawable);
-        setIndeterminate(true);
+        mSpec = builder.buildSpec();
+        setIndeterminate(false);
+        if (!mPooled) {
+            setDrawable(IntermediateProgressBarDrawable.create(mSpec, context));
+        }
+    }
+
+    private void setDrawable(@Nullable IntermediateProgressBarDrawable drawable) {
+        mDrawable = drawable;
+        // Hosted as the progress drawable, so ProgressBar does not restart it on every attach or visibility change,
+        // the drawable pauses itself while invisible instead
+        setProgressDrawable(drawable);
     }
 
     public void start() {
-        mDrawable.start();
+        mStartRequested = true;
+        if (mDrawable != null) {
+            mDrawable.start();
+            updateDrawableVisibility();
+        }
     }
 
     public void stop() {
-        mDrawable.stop();
+        mStartRequested = false;
+        if (mDrawable != null) {
+            mDrawable.stop();
+        }
     }
 
     public void progressiveStop() {
-        mDrawable.progressiveStop(null);
+        mStartRequested = false;
+        if (mDrawable != null) {
+            mDrawable.progressiveStop(null);
+        }
+    }
+
+    /**
+     * @see IntermediateProgressBarDrawable#setDeterminate(boolean)
+     */
+    public void setDeterminate(boolean determinate) {
+        mDeterminate = determinate;
+        if (mDrawable != null) {
+            mDrawable.setDeterminate(determinate);
+        }
+    }
+
+    /**
+     * Safe to call from any thread, see {@link IntermediateProgressBarDrawable#setProgress(float)}.
+     * Named apart from {@link ProgressBar#setProgress(int)}, which is not used by this view.
+     *
+     * @param progress in [0, 1]
+     */
+    public void setProgressFraction(float progress) {
+        mProgress = progress;
+        IntermediateProgressBarDrawable drawable = mDrawable;
+        if (drawable != null) {
+            drawable.setProgress(progress);
+        }
+    }
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        mAttached = true;
+        if (mPooled && mDrawable == null) {
+            IntermediateProgressBarDrawable drawable = IntermediateProgressBarDrawablePool.acquire(getContext(), mSpec);
+            drawable.setDeterminate(mDeterminate);
+            drawable.setProgress(mProgress);
+            setDrawable(drawable);
+        }
+        if (mStartRequested && !mDrawable.isRunning()) {
+            mDrawable.start();
+        }
+        updateDrawableVisibility();
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        mAttached = false;
+        updateDrawableVisibility();
+        if (mPooled && mDrawable != null) {
+            IntermediateProgressBarDrawable drawable = mDrawable;
+            setDrawable(null);
+            IntermediateProgressBarDrawablePool.release(drawable);
+        }
+        super.onDetachedFromWindow();
+    }
+
+    @Override
+    protected void onVisibilityChanged(@NonNull View changedView, int visibility) {
+        super.onVisibilityChanged(changedView, visibility);
+        updateDrawableVisibility();
+    }
+
+    @Override
+    public void onVisibilityAggregated(boolean isVisible) {
+        super.onVisibilityAggregated(isVisible);
+        updateDrawableVisibility();
+    }
+
+    @Override
+    protected void onWindowVisibilityChanged(int visibility) {
+        super.onWindowVisibilityChanged(visibility);
+        updateDrawableVisibility();
+    }
+
+    @Override
+    public void onWindowFocusChanged(boolean hasWindowFocus) {
+        super.onWindowFocusChanged(hasWindowFocus);
+        updateDrawableVisibility();
+    }
+
+    private void updateDrawableVisibility() {
+        if (mDrawable == null) {
+            // called by the super constructor
+            return;
+        }
+        boolean visible = mAttached && isShown() && getWindowVisibility() == VISIBLE && hasWindowFocus();
+        mDrawable.setVisible(visible, false);
     }
 }
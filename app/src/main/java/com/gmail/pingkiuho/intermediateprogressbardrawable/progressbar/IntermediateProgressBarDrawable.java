@@ -1,26 +1,45 @@
 package com.gmail.pingkiuho.intermediateprogressbardrawable.progressbar;
 
-import android.animation.Animator;
-import android.animation.ValueAnimator;
 import android.content.Context;
+import android.content.res.Resources;
+import android.content.res.TypedArray;
+import android.graphics.Color;
 import android.graphics.Canvas;
 import android.graphics.ColorFilter;
-import android.graphics.Matrix;
 import android.graphics.Paint;
 import android.graphics.PixelFormat;
 import android.graphics.Rect;
 import android.graphics.RectF;
-import android.graphics.SweepGradient;
 import android.graphics.drawable.Animatable;
 import android.graphics.drawable.Drawable;
-import android.support.annotation.CallSuper;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.os.Trace;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
-import android.support.v4.view.animation.FastOutSlowInInterpolator;
+import android.util.AttributeSet;
+import android.util.Log;
 import android.util.TypedValue;
-import android.view.animation.LinearInterpolator;
+import android.view.Choreographer;
 
 import com.gmail.pingkiuho.intermediateprogressbardrawable.R;
+import com.gmail.pingkiuho.intermediateprogressbardrawable.progressbar.model.AdaptiveQualityGovernor;
+import com.gmail.pingkiuho.intermediateprogressbardrawable.progressbar.model.ArcAnimation;
+import com.gmail.pingkiuho.intermediateprogressbardrawable.progressbar.model.ArcFrame;
+import com.gmail.pingkiuho.intermediateprogressbardrawable.progressbar.model.ArcSpec;
+import com.gmail.pingkiuho.intermediateprogressbardrawable.progressbar.model.CubicBezierEasing;
+import com.gmail.pingkiuho.intermediateprogressbardrawable.progressbar.model.DetailProfile;
+import com.gmail.pingkiuho.intermediateprogressbardrawable.util.DimensionUtil;
+
+import org.xmlpull.v1.XmlPullParser;
+import org.xmlpull.v1.XmlPullParserException;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Created by Brian Ho on 9/4/2018.
@@ -30,103 +49,173 @@ import com.gmail.pingkiuho.intermediateprogressbardrawable.R;
 public class IntermediateProgressBarDrawable extends Drawable implements Animatable {
     public static final String TAG = IntermediateProgressBarDrawable.class.getSimpleName();
 
+    /**
+     * Pick the arc renderer from the size, stroke and gradient, see {@link Builder#renderer(int)}
+     */
+    public static final int RENDERER_AUTO = 0;
+    public static final int RENDERER_DRAW_ARC = 1;
+    public static final int RENDERER_PATH = 2;
+    public static final int RENDERER_FAST = 3;
+
+    static final float FAST_RENDERER_MAX_SIZE_DP = 20f;
+    static final float PATH_RENDERER_MIN_STROKE_WIDTH_DP = 6f;
+
     public interface OnStopListener {
         void onStop();
     }
 
+    public interface OnQualityChangeListener {
+        /**
+         * @param oldLevel one of the {@link AdaptiveQualityGovernor} QUALITY_ levels
+         * @param newLevel one of the {@link AdaptiveQualityGovernor} QUALITY_ levels
+         */
+        void onQualityChanged(int oldLevel, int newLevel);
+    }
+
+    public interface OnMetricsListener {
+        /**
+         * Called from the clock once per sweep cycle while metrics are enabled
+         *
+         * @param metrics cumulative counters, only valid during the call
+         */
+        void onMetrics(DrawableMetrics metrics);
+    }
+
+    // pending lifecycle commands, a progressive stop is its listener (or the sentinel) so one slot holds both
+    private static final Object COMMAND_START = new Object();
+    private static final Object COMMAND_STOP = new Object();
+    private static final OnStopListener COMMAND_PROGRESSIVE_STOP = new OnStopListener() {
+        @Override
+        public void onStop() {
+        }
+    };
+
+    private static Handler sMainHandler;
+
+    private SpecState mState;
+    private IntermediateProgressBarSpec mSpec;
+
     private boolean mRunning;
     private RectF mRectF = new RectF();
     private Paint mPaint;
 
-    private float mCurrentSweepAngle;
-    private float mCurrentRotation;
-    private float mCurrentRotationOffset;
-    private float mCurrentEndRatio = 1;
-    private boolean mSweepAppearing = true;
-    private boolean mFirstSweepAnimation;
+    private final ArcAnimation mAnimation = new ArcAnimation();
+    // the frame to draw, owned by mAnimation
+    private final ArcFrame mFrame = mAnimation.getFrame();
+    // bounds the size derived geometry was computed for, a pure move of them only offsets mRectF
+    private final Rect mGeometryBounds = new Rect();
+    private boolean mGeometryValid;
+
+    // latest progress from any thread as float bits, only read by the clock
+    private final AtomicInteger mTargetProgressBits = new AtomicInteger(Float.floatToIntBits(0f));
+    private final AtomicBoolean mProgressWakePending = new AtomicBoolean();
+    // set by the main thread while the clock is paused because the displayed progress reached its target
+    private volatile boolean mProgressIdle;
+
+    // last lifecycle command requested from any thread, applied on the next frame
+    private final AtomicReference<Object> mPendingCommand = new AtomicReference<>();
+    private final Choreographer.FrameCallback mCommandFrameCallback = new Choreographer.FrameCallback() {
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            applyPendingCommand();
+        }
+    };
+    private final Runnable mPostCommandFrameCallback = new Runnable() {
+        @Override
+        public void run() {
+            Choreographer.getInstance().postFrameCallback(mCommandFrameCallback);
+        }
+    };
+    private final Runnable mProgressWake = new Runnable() {
+        @Override
+        public void run() {
+            mProgressWakePending.set(false);
+            if (mProgressIdle) {
+                mProgressIdle = false;
+                if (isRunning() && isVisible()) {
+                    startClock();
+                }
+            }
+        }
+    };
+
+    private final AnimationClock mClock = new AnimationClock(new AnimationClock.Listener() {
+        @Override
+        public void onClockTick(long elapsedNanos, long realElapsedNanos) {
+            IntermediateProgressBarDrawable.this.onClockTick(elapsedNanos, realElapsedNanos);
+        }
 
-    private ValueAnimator mRotationAnimator;
-    private ValueAnimator mSweepAppearingAnimator;
-    private ValueAnimator mSweepDisappearingAnimator;
-    private ValueAnimator mEndAnimator;
+        @Override
+        public void onAnimationsOff() {
+            if (mAnimation.isEnding()) {
+                // the rest of the end animation would not be shown
+                finishProgressiveStop();
+                return;
+            }
+            mReducedMotion = true;
+            showReducedMotionFrame();
+        }
+    });
+    // true while animations are off system-wide, a static frame is shown and the clock is not run
+    private boolean mReducedMotion;
 
     private OnStopListener mOnStopListener;
 
-    private boolean mSweep;
-    private boolean mRotation;
-    private long mRotationDuration;
-    private long mSweepDuration;
-    private float mRotationSpeed;
-    private float mSweepSpeed;
-    private float mMaxSweepAngle;
-    private float mAdjustedMaxSweepAngle;
-    private float mMinSweepAngle;
-    private float mAdjustedMinSweepAngle;
-    private float mStartAtDegree;
-    private float mStrokeWidthInPx = 0f;
-    private Paint.Cap mStrokeCap = Paint.Cap.ROUND;
-    private int[] mColors;
-    private boolean mGradient;
-    private int mSize;
-
+    private SpriteAtlas mAtlas;
+    // the atlas requested for the current size, null if none was requested
+    private SpriteAtlas.Key mAtlasKey;
+    private final SpriteAtlasCache.Callback mAtlasCallback = new SpriteAtlasCache.Callback() {
+        @Override
+        public void onAtlasReady(SpriteAtlas atlas) {
+            // the size or the state may have changed while it was baked
+            if (atlas.getKey().equals(mAtlasKey)) {
+                mAtlas = atlas;
+            }
+        }
+    };
+    private int mAtlasFrameIndex = -1;
+    private Paint mAtlasPaint;
+
+    private GradientShaderCache mGradientShaderCache;
+    private LinearTrackRenderer mLinearTrackRenderer;
+    private ArcRenderer mArcRenderer;
+    private ArcRenderer.CachedPath mCachedPathRenderer;
+    private DetailProfile mDetailProfile = DetailProfile.FULL;
+    // the spec's colors, reduced by the detail profile
+    private int[] mGradientColors;
+
+    // kept apart from the paints, setColor() resets the paint alpha
+    private int mAlpha = 255;
+    // null unless adaptive quality is enabled
+    private AdaptiveQualityGovernor mQualityGovernor;
+    private OnQualityChangeListener mOnQualityChangeListener;
+
+    // null while metrics are disabled, so the hot paths only pay a null check
+    private DrawableMetrics mMetrics;
+    private DrawableMetrics mMetricsSnapshot;
+    private OnMetricsListener mOnMetricsListener;
+    private long mMetricsCycle;
 
     public static Builder builder(Context context) {
         return new Builder(context);
     }
 
-    private IntermediateProgressBarDrawable(Context context,
-                                            boolean sweep,
-                                            boolean rotate,
-                                            long rotationDuration,
-                                            long sweepDuration,
-                                            float rotationSpeed,
-                                            float sweepSpeed,
-                                            float maxSweepAngle,
-                                            float minSweepAngle,
-                                            float startAtDegree,
-                                            float strokeWidthInPx,
-                                            Paint.Cap strokeCap,
-                                            int[] colors,
-                                            boolean gradient,
-                                            int size) {
-        mSweep = sweep;
-        mRotation = rotate;
-        mRotationDuration = rotationDuration;
-        mSweepDuration = sweepDuration;
-        mRotationSpeed = rotationSpeed;
-        mSweepSpeed = sweepSpeed;
-        mMaxSweepAngle = maxSweepAngle;
-        mAdjustedMaxSweepAngle = maxSweepAngle;
-        mMinSweepAngle = minSweepAngle;
-        mAdjustedMinSweepAngle = minSweepAngle;
-        mStartAtDegree = startAtDegree;
-        mStrokeWidthInPx = strokeWidthInPx;
-        mStrokeCap = strokeCap;
-        mGradient = gradient;
-        mSize = size;
-
-        if (gradient && colors.length > 1) {
-            // The order of colors need to be reversed since the end of the gradient will be the "head" of stroke
-            mColors = new int[colors.length];
-            for (int i = 0; i < colors.length; i++) {
-                mColors[i] = colors[colors.length - 1 - i];
-            }
-        } else if (colors == null) {
-            // Apply app theme primary color if there is no color specified
-            TypedValue typedValue = new TypedValue();
-            context.getTheme().resolveAttribute(R.attr.colorPrimary, typedValue, true);
-            mColors = new int[]{typedValue.data};
-            mGradient = false;
-        } else {
-            mColors = colors;
-        }
+    /**
+     * @return number of drawables whose clock is ticking, i.e. running and not paused for being invisible
+     */
+    public static int getAnimatingCount() {
+        return AnimationClock.getRunningCount();
+    }
 
-        mPaint = new Paint();
-        mPaint.setFlags(Paint.ANTI_ALIAS_FLAG);
-        mPaint.setStyle(Paint.Style.STROKE);
-        mPaint.setStrokeWidth(mStrokeWidthInPx);
-        mPaint.setStrokeCap(mStrokeCap);
+    /**
+     * Used by XML inflation, the spec is read from the attributes in {@link #inflate(Resources, XmlPullParser, AttributeSet, Resources.Theme)}.
+     * Drawables of a custom class can only be inflated from XML on API 24+, see res/drawable-v24/ipb_inflated_spinner.xml.
+     */
+    public IntermediateProgressBarDrawable() {
+        this(new SpecState(new Builder(null, null).buildSpec(), 0));
+    }
 
+    private IntermediateProgressBarDrawable(SpecState state) {
         setCallback(new Callback() {
             @Override
             public void invalidateDrawable(@NonNull Drawable who) {
@@ -144,32 +233,326 @@ public class IntermediateProgressBarDrawable extends Drawable implements Animata
             }
         });
 
-        setupAnimations();
+        applyState(state);
+    }
+
+    private void applyState(SpecState state) {
+        mState = state;
+        mSpec = state.mSpec;
+        mAnimation.setSpec(mSpec.getArcSpec());
+        mAnimation.setTargetFrameRate(mSpec.getTargetFrameRate());
+        mAnimation.setMinMovePixels(mSpec.getMinInvalidatePixels());
+
+        // the clock and the gradient shaders are created on first start, many drawables are inflated and never started
+        mClock.release();
+        mClock.setFrameTicker(mSpec.isFrameTicker());
+        mGradientShaderCache = null;
+        mLinearTrackRenderer = mSpec.isHorizontal() ? new LinearTrackRenderer(mSpec.getColors(), mSpec.isGradient()) : null;
+        mQualityGovernor = mSpec.isAdaptiveQuality() ? new AdaptiveQualityGovernor() : null;
+        mDetailProfile = DetailProfile.FULL;
+        mGradientColors = mSpec.getColors();
+        mGeometryValid = false;
+
+        mPaint = new Paint();
+        mPaint.setFlags(Paint.ANTI_ALIAS_FLAG);
+        mPaint.setStyle(Paint.Style.STROKE);
+        mPaint.setStrokeWidth(mSpec.getStrokeWidthInPx());
+        mPaint.setStrokeCap(mSpec.getStrokeCap());
+        mPaint.setColor(mSpec.getColors()[0]);
+        mPaint.setAlpha(mAlpha);
+        mArcRenderer = null;
+        updateArcRenderer();
+
+        mAtlas = null;
+        mAtlasKey = null;
+        mAtlasPaint = null;
+        if (isBaked()) {
+            mAtlasPaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+            mAtlasPaint.setColor(mSpec.getColors()[0]);
+            mAtlasPaint.setAlpha(mAlpha);
+        }
+    }
+
+    public IntermediateProgressBarSpec getSpec() {
+        return mSpec;
+    }
+
+    /**
+     * @param context for the system animator duration scale before API 26
+     */
+    static IntermediateProgressBarDrawable create(IntermediateProgressBarSpec spec, Context context) {
+        IntermediateProgressBarDrawable drawable = (IntermediateProgressBarDrawable) new SpecState(spec, 0).newDrawable();
+        AnimationClock.setContext(context);
+        return drawable;
+    }
+
+    /**
+     * Stop and forget the listeners, metrics, progress, alpha, color filter, quality level and callback, for
+     * {@link IntermediateProgressBarDrawablePool}. Unlike {@link #stop()} the clock, shaders and atlas are kept for the
+     * next user.
+     *
+     * @return the pending progressive stop listener, not called yet, the caller calls it once the drawable is pooled
+     */
+    @Nullable
+    OnStopListener recycle() {
+        mRunning = false;
+        Object command = mPendingCommand.getAndSet(null);
+        OnStopListener pendingListener = mOnStopListener;
+        if (command instanceof OnStopListener && command != COMMAND_PROGRESSIVE_STOP) {
+            pendingListener = chainListeners(pendingListener, (OnStopListener) command);
+        }
+        reset();
+        mOnStopListener = null;
+        mOnQualityChangeListener = null;
+        mOnMetricsListener = null;
+        mMetrics = null;
+        mMetricsSnapshot = null;
+        mAnimation.setDeterminate(false);
+        mTargetProgressBits.set(Float.floatToIntBits(0f));
+        mAtlasFrameIndex = -1;
+        mReducedMotion = false;
+        setCallback(null);
+        setVisible(true, false);
+        setColorFilter(null);
+        setAlpha(255);
+        if (mQualityGovernor != null && mQualityGovernor.getLevel() != AdaptiveQualityGovernor.QUALITY_FULL) {
+            int oldLevel = mQualityGovernor.getLevel();
+            mQualityGovernor = new AdaptiveQualityGovernor();
+            applyQualityLevel(oldLevel, mQualityGovernor.getLevel());
+        }
+        return pendingListener;
+    }
+
+    /**
+     * Thread-safe {@link #start()}, applied on the next frame. Only the last requested command of a frame is applied,
+     * and only if it changes the state, e.g. start, stop, start within one frame leaves a running drawable untouched.
+     */
+    public void requestStart() {
+        requestCommand(COMMAND_START);
+    }
+
+    /**
+     * Thread-safe {@link #stop()}, coalesced like {@link #requestStart()}
+     */
+    public void requestStop() {
+        requestCommand(COMMAND_STOP);
+    }
+
+    /**
+     * Thread-safe {@link #progressiveStop(OnStopListener)}, coalesced like {@link #requestStart()}.
+     * The listener is dropped if another command replaces this one within the frame.
+     */
+    public void requestProgressiveStop(@Nullable OnStopListener listener) {
+        requestCommand(listener != null ? listener : COMMAND_PROGRESSIVE_STOP);
+    }
+
+    private void requestCommand(Object command) {
+        if (mPendingCommand.getAndSet(command) != null) {
+            // the frame callback is already on its way
+            return;
+        }
+        if (Looper.myLooper() == Looper.getMainLooper()) {
+            mPostCommandFrameCallback.run();
+        } else {
+            getMainHandler().post(mPostCommandFrameCallback);
+        }
+    }
+
+    private void applyPendingCommand() {
+        Object command = mPendingCommand.getAndSet(null);
+        if (command == COMMAND_START) {
+            if (!isRunning() || mAnimation.isEnding()) {
+                start();
+            }
+        } else if (command == COMMAND_STOP) {
+            if (isRunning()) {
+                stop();
+            }
+        } else if (command instanceof OnStopListener) {
+            OnStopListener listener = (OnStopListener) command;
+            if (isRunning()) {
+                progressiveStop(listener);
+            } else {
+                listener.onStop();
+            }
+        }
+    }
+
+    /**
+     * Show {@link #setProgress(float)} instead of the indeterminate animation, with the same arc, gradient and
+     * progressive stop. Must be called from the main thread.
+     */
+    public void setDeterminate(boolean determinate) {
+        if (mAnimation.isDeterminate() == determinate) {
+            return;
+        }
+        mAtlasFrameIndex = -1;
+        mProgressIdle = false;
+        mAnimation.setDeterminate(determinate);
+        if (isRunning() && isVisible()) {
+            startClock();
+        }
+        invalidateSelf();
+    }
+
+    public boolean isDeterminate() {
+        return mAnimation.isDeterminate();
+    }
+
+    /**
+     * Safe to call from any thread at any rate. Only the latest value is kept, the displayed arc moves toward it
+     * smoothly once per frame. Posts to the main thread only when the arc had already settled.
+     *
+     * @param progress in [0, 1]
+     */
+    public void setProgress(float progress) {
+        mTargetProgressBits.set(Float.floatToIntBits(Math.max(0f, Math.min(progress, 1f))));
+        // pairs with the re-check in onProgressSettled(), either the clock sees the new value or it gets woken
+        if (mProgressIdle && mProgressWakePending.compareAndSet(false, true)) {
+            getMainHandler().post(mProgressWake);
+        }
+    }
+
+    /**
+     * @return the latest value passed to {@link #setProgress(float)}, not the displayed one
+     */
+    public float getProgress() {
+        return Float.intBitsToFloat(mTargetProgressBits.get());
+    }
+
+    /**
+     * @param listener called from the clock when adaptive quality changes the level, null to remove
+     * @see Builder#adaptiveQuality(boolean)
+     */
+    public void setOnQualityChangeListener(@Nullable OnQualityChangeListener listener) {
+        mOnQualityChangeListener = listener;
+    }
+
+    /**
+     * @return the current {@link AdaptiveQualityGovernor} QUALITY_ level, always full if adaptive quality is disabled
+     */
+    public int getQualityLevel() {
+        return mQualityGovernor != null ? mQualityGovernor.getLevel() : AdaptiveQualityGovernor.QUALITY_FULL;
+    }
+
+    /**
+     * Collect {@link DrawableMetrics} and wrap draw() and the clock tick in {@link Trace} sections.
+     * Disabled by default, disabling drops the collected counters.
+     */
+    public void setMetricsEnabled(boolean enabled) {
+        if (enabled && mMetrics == null) {
+            mMetrics = new DrawableMetrics();
+            mMetricsSnapshot = new DrawableMetrics();
+            mMetricsCycle = mAnimation.getCycle();
+        } else if (!enabled) {
+            mMetrics = null;
+            mMetricsSnapshot = null;
+        }
+    }
+
+    public boolean isMetricsEnabled() {
+        return mMetrics != null;
+    }
+
+    /**
+     * Copy the current counters into {@code out}
+     *
+     * @return false if metrics are disabled, {@code out} is left untouched then
+     */
+    public boolean getMetrics(DrawableMetrics out) {
+        if (mMetrics == null) {
+            return false;
+        }
+        out.set(mMetrics);
+        return true;
+    }
+
+    public void resetMetrics() {
+        if (mMetrics != null) {
+            mMetrics.reset();
+        }
+    }
+
+    /**
+     * @param listener called once per sweep cycle while metrics are enabled, never without a sweep duration, null to remove
+     */
+    public void setOnMetricsListener(@Nullable OnMetricsListener listener) {
+        mOnMetricsListener = listener;
+    }
+
+    /**
+     * Reads the IntermediateProgressBar styleable attributes. The framework only inflates
+     * {@code <drawable class="...">} on API 24+, use the {@link Builder} below that.
+     */
+    @Override
+    public void inflate(@NonNull Resources r, @NonNull XmlPullParser parser, @NonNull AttributeSet attrs, @Nullable Resources.Theme theme)
+            throws XmlPullParserException, IOException {
+        super.inflate(r, parser, attrs, theme);
+
+        final TypedArray styleArray = theme != null
+                ? theme.obtainStyledAttributes(attrs, R.styleable.IntermediateProgressBar, 0, 0)
+                : r.obtainAttributes(attrs, R.styleable.IntermediateProgressBar);
+        Builder builder = new Builder(null, theme);
+        builder.applyAttributes(styleArray, r);
+        int changingConfigurations = styleArray.getChangingConfigurations();
+        styleArray.recycle();
+
+        applyState(new SpecState(builder.buildSpec(), changingConfigurations));
+    }
+
+    @Override
+    public ConstantState getConstantState() {
+        return mState;
+    }
+
+    @Override
+    public int getChangingConfigurations() {
+        return super.getChangingConfigurations() | mState.mChangingConfigurations;
+    }
+
+    /**
+     * The shared spec is immutable and everything mutable (paint, animation state) is per instance already
+     */
+    @NonNull
+    @Override
+    public Drawable mutate() {
+        return this;
     }
 
     @Override
     public void start() {
         mRunning = true;
         reset();
-        if (mRotation) {
-            mRotationAnimator.start();
-        }
-        if (mSweep) {
-            mSweepAppearingAnimator.start();
+        requestAtlas();
+        if (isVisible()) {
+            startClock();
         }
     }
 
     @Override
     public void stop() {
         mRunning = false;
+        mReducedMotion = false;
         reset();
+        mClock.release();
+        mGradientShaderCache = null;
+        mAtlas = null;
+        mAtlasKey = null;
+        mAtlasFrameIndex = -1;
         invalidateSelf();
     }
 
+    /**
+     * Animate out, then stop. If already animating out, the listener is called with the stop in progress.
+     */
     public void progressiveStop(@Nullable OnStopListener listener) {
-        if (!isRunning() && mEndAnimator.isRunning()) {
+        if (!isRunning()) {
             return;
-        } else if (!mSweep) {
+        } else if (mAnimation.isEnding()) {
+            mOnStopListener = chainListeners(mOnStopListener, listener);
+            return;
+        } else if ((!mSpec.isSweep() && !mAnimation.isDeterminate()) || mClock.readDurationScale() <= 0f) {
+            // nothing to animate out, or the end animation would not be shown
             stop();
             if (listener != null) {
                 listener.onStop();
@@ -178,42 +561,51 @@ public class IntermediateProgressBarDrawable extends Drawable implements Animata
         }
 
         mOnStopListener = listener;
+        // the end animation starts from the next frame
+        mAnimation.startEnding();
+        if (mProgressIdle) {
+            mProgressIdle = false;
+            if (isVisible()) {
+                startClock();
+            }
+        }
+    }
 
-        mEndAnimator.addListener(new SimpleAnimatorListener() {
+    static OnStopListener chainListeners(@Nullable final OnStopListener first, @Nullable final OnStopListener second) {
+        if (first == null) {
+            return second;
+        } else if (second == null) {
+            return first;
+        }
+        return new OnStopListener() {
             @Override
-            protected void onPreAnimationEnd(Animator animation) {
-                mEndAnimator.removeListener(this);
-                if (isStartedAndNotCancelled()) {
-                    mCurrentEndRatio = 0f;
-                    stop();
-                    if (mOnStopListener != null) {
-                        mOnStopListener.onStop();
-                        mOnStopListener = null;
-                    }
-                }
+            public void onStop() {
+                first.onStop();
+                second.onStop();
             }
-        });
-        mEndAnimator.start();
+        };
     }
 
     private void reset() {
-        mSweepAppearing = true;
-        mFirstSweepAnimation = true;
-        mCurrentEndRatio = 1f;
-        mCurrentRotation = mStartAtDegree;
-        mCurrentRotationOffset = 0f;
-        if (!mSweep) {
-            mCurrentSweepAngle = mAdjustedMaxSweepAngle;
-        }
+        mProgressIdle = false;
+        mAnimation.reset();
+        mClock.reset();
+    }
 
-        mEndAnimator.cancel();
-        if (mRotation) {
-            mRotationAnimator.cancel();
-        }
-        if (mSweep) {
-            mSweepAppearingAnimator.cancel();
-            mSweepDisappearingAnimator.cancel();
+    /**
+     * Pause the clock while invisible, the animation resumes at the same phase once visible again
+     */
+    @Override
+    public boolean setVisible(boolean visible, boolean restart) {
+        boolean changed = super.setVisible(visible, restart);
+        if (isRunning()) {
+            if (visible) {
+                startClock();
+            } else {
+                mClock.pause();
+            }
         }
+        return changed;
     }
 
     @Override
@@ -223,40 +615,73 @@ public class IntermediateProgressBarDrawable extends Drawable implements Animata
 
     @Override
     public void draw(@NonNull Canvas canvas) {
-        if (isRunning()) {
-            float nextStartAngle = mCurrentRotation - mCurrentRotationOffset;
-            float nextSweepAngle = mSweep ? mCurrentSweepAngle : mAdjustedMaxSweepAngle;
+        if (mMetrics == null) {
+            drawFrame(canvas);
+            return;
+        }
 
-            if (mSweep) {
-                if (!mSweepAppearing) {
-                    // if sweep is disappearing, reverse the sweep direction
-                    nextStartAngle = nextStartAngle + (360f - nextSweepAngle);
-                }
-                nextStartAngle %= 360;
-            }
+        Trace.beginSection("IPBDrawable#draw");
+        long startNanos = SystemClock.elapsedRealtimeNanos();
+        drawFrame(canvas);
+        mMetrics.drawNanos += SystemClock.elapsedRealtimeNanos() - startNanos;
+        Trace.endSection();
+    }
 
-            if (mCurrentEndRatio < 1f) {
-                float newSweepAngle = nextSweepAngle * mCurrentEndRatio;
-                nextStartAngle = (nextStartAngle + (nextSweepAngle - newSweepAngle)) % 360;
-                nextSweepAngle = newSweepAngle;
+    private void drawFrame(Canvas canvas) {
+        if (isRunning()) {
+            if (mMetrics != null) {
+                mMetrics.framesDrawn++;
+            }
+            if (mLinearTrackRenderer != null) {
+                mLinearTrackRenderer.draw(canvas, mRectF, mFrame, mPaint, isGradientDrawn());
+                return;
+            }
+            if (mAtlasFrameIndex >= 0 && !mAnimation.isDeterminate()) {
+                mAtlas.draw(canvas, mAtlasFrameIndex, mRectF, mFrame.startAngle, mAtlasPaint);
+                return;
             }
 
-            if (mGradient) {
-                mPaint.setShader(calculateGradientShader(nextStartAngle, nextSweepAngle));
+            if (isGradientDrawn()) {
+                if (mGradientShaderCache == null) {
+                    mGradientShaderCache = new GradientShaderCache(mGradientColors, mSpec.getGradientAngleTolerance());
+                }
+                if (mMetrics == null) {
+                    updateGradientShader();
+                } else {
+                    Trace.beginSection("IPBDrawable#gradientShader");
+                    long startNanos = SystemClock.elapsedRealtimeNanos();
+                    int buildCount = mGradientShaderCache.getBuildCount();
+                    updateGradientShader();
+                    mMetrics.shaderBuilds += mGradientShaderCache.getBuildCount() - buildCount;
+                    mMetrics.shaderNanos += SystemClock.elapsedRealtimeNanos() - startNanos;
+                    Trace.endSection();
+                }
             }
 
-            canvas.drawArc(mRectF, nextStartAngle, nextSweepAngle, false, mPaint);
+            mArcRenderer.draw(canvas, mRectF, mFrame.startAngle, mFrame.sweepAngle, mPaint);
         }
     }
 
     @Override
     public void setAlpha(int alpha) {
+        mAlpha = alpha;
         mPaint.setAlpha(alpha);
+        if (mAtlasPaint != null) {
+            mAtlasPaint.setAlpha(alpha);
+        }
+    }
+
+    @Override
+    public int getAlpha() {
+        return mAlpha;
     }
 
     @Override
     public void setColorFilter(@Nullable ColorFilter colorFilter) {
         mPaint.setColorFilter(colorFilter);
+        if (mAtlasPaint != null) {
+            mAtlasPaint.setColorFilter(colorFilter);
+        }
     }
 
     @Override
@@ -268,6 +693,27 @@ public class IntermediateProgressBarDrawable extends Drawable implements Animata
     protected void onBoundsChange(Rect bounds) {
         super.onBoundsChange(bounds);
 
+        if (mGeometryValid
+                && bounds.width() == mGeometryBounds.width()
+                && bounds.height() == mGeometryBounds.height()) {
+            // moved without resizing, e.g. by a layout animation, nothing derived from the size changes
+            mRectF.offset(bounds.left - mGeometryBounds.left, bounds.top - mGeometryBounds.top);
+            mGeometryBounds.set(bounds);
+            if (mGradientShaderCache != null && isGradientDrawn() && !mArcRenderer.isCanvasTransformed()) {
+                updateGradientShader();
+            }
+            return;
+        }
+        mGeometryBounds.set(bounds);
+        mGeometryValid = true;
+
+        if (mSpec.isHorizontal()) {
+            // the whole bounds are the track, the sweep angles need no stroke cap adjustment on a line
+            mRectF.set(bounds.left, bounds.top, bounds.right, bounds.bottom);
+            mAnimation.resetGeometry();
+            return;
+        }
+
         mRectF.left = bounds.left + mPaint.getStrokeWidth() / 2;
         mRectF.right = bounds.right - mPaint.getStrokeWidth() / 2;
         mRectF.top = bounds.top + mPaint.getStrokeWidth() / 2;
@@ -278,9 +724,10 @@ public class IntermediateProgressBarDrawable extends Drawable implements Animata
         float trimWidth = 0;
         float trimHeight = 0;
 
-        if (mSize > 0 && (width > mSize || height > mSize)) {
-            trimWidth = width - mSize;
-            trimHeight = height - mSize;
+        int size = mSpec.getSize();
+        if (size > 0 && (width > size || height > size)) {
+            trimWidth = width - size;
+            trimHeight = height - size;
         }
 
         if (width > height) {
@@ -295,206 +742,340 @@ public class IntermediateProgressBarDrawable extends Drawable implements Animata
         mRectF.bottom -= trimHeight / 2;
 
 
+        updateDetailProfile();
+        updateArcRenderer();
         adjustSweepAngleForStroke();
+        // baked again for the new pixel size, drawn live meanwhile
+        mAtlas = null;
+        mAtlasKey = null;
+        mAtlasFrameIndex = -1;
+        if (isRunning()) {
+            requestAtlas();
+        }
 
-        if (mGradient) {
-            mPaint.setShader(calculateGradientShader(mCurrentRotation, mCurrentSweepAngle));
+        if (mGradientShaderCache != null && isGradientDrawn()) {
+            updateGradientShader();
         }
     }
 
-    private void setupAnimations() {
-        if (mRotation) {
-            mRotationAnimator = ValueAnimator.ofFloat(0f, 360f);
-            mRotationAnimator.setInterpolator(new LinearInterpolator());
-            mRotationAnimator.setDuration((long) (mRotationDuration / mRotationSpeed));
-            mRotationAnimator.addUpdateListener(new ValueAnimator.AnimatorUpdateListener() {
-                @Override
-                public void onAnimationUpdate(ValueAnimator animation) {
-                    mCurrentRotation = mStartAtDegree + animation.getAnimatedFraction() * 360f;
-                    invalidateSelf();
-                }
-            });
-            mRotationAnimator.setRepeatCount(ValueAnimator.INFINITE);
-            mRotationAnimator.setRepeatMode(ValueAnimator.RESTART);
-        }
-
-        if (mSweep) {
-            mSweepAppearingAnimator = ValueAnimator.ofFloat(mAdjustedMinSweepAngle, mAdjustedMaxSweepAngle);
-            mSweepAppearingAnimator.setInterpolator(new FastOutSlowInInterpolator());
-            mSweepAppearingAnimator.setDuration((long) (mSweepDuration / mSweepSpeed));
-            mSweepAppearingAnimator.addUpdateListener(new ValueAnimator.AnimatorUpdateListener() {
-                @Override
-                public void onAnimationUpdate(ValueAnimator animation) {
-                    float newAngle;
-                    if (mFirstSweepAnimation) {
-                        newAngle = animation.getAnimatedFraction() * mAdjustedMaxSweepAngle;
-                    } else {
-                        newAngle = mAdjustedMinSweepAngle + animation.getAnimatedFraction() * (mAdjustedMaxSweepAngle - mAdjustedMinSweepAngle);
-                    }
-                    mCurrentSweepAngle = newAngle;
-                    invalidateSelf();
-                }
-            });
-            mSweepAppearingAnimator.addListener(new SimpleAnimatorListener() {
-                @Override
-                public void onAnimationStart(Animator animation, boolean isReverse) {
-                    super.onAnimationStart(animation);
-                    mSweepAppearing = true;
-                }
-
-                @Override
-                protected void onPreAnimationEnd(Animator animation) {
-                    if (isStartedAndNotCancelled()) {
-                        mFirstSweepAnimation = false;
-                        mSweepAppearing = false;
-                        mCurrentRotationOffset = mCurrentRotationOffset + (360f - mAdjustedMaxSweepAngle);
-                        if (mCurrentRotationOffset > 360f) {
-                            mCurrentRotationOffset -= 360f;
-                        }
-                        mSweepDisappearingAnimator.start();
-                    }
+    /**
+     * Ask for the atlas of the current size, it is baked off the main thread and the arc is drawn live until it
+     * is ready. Never called from draw().
+     */
+    private void requestAtlas() {
+        if (!isBaked() || mAtlasKey != null || mRectF.isEmpty()) {
+            return;
+        }
+        ArcSpec arcSpec = mAnimation.getArcSpec();
+        mAtlasKey = new SpriteAtlas.Key(mRectF.width(), mSpec.getStrokeWidthInPx(), mSpec.getStrokeCap(), arcSpec, mSpec.getBakedFrameRate());
+        // null while baking, or for good if the atlas is too large
+        mAtlas = SpriteAtlasCache.obtain(mAtlasKey, arcSpec, mAtlasCallback);
+    }
 
+    private void updateArcRenderer() {
+        int renderer = mSpec.getRenderer();
+        if (renderer == RENDERER_AUTO) {
+            renderer = chooseRenderer(mRectF.width(), mSpec.getStrokeWidthInPx(), mSpec.getStrokeCap(), mSpec.isGradient(),
+                    mSpec.isSweep(), mDetailProfile.isAntiAlias(), Resources.getSystem().getDisplayMetrics().density);
+        }
+        ArcRenderer arcRenderer;
+        switch (renderer) {
+            case RENDERER_PATH:
+                if (mCachedPathRenderer == null) {
+                    mCachedPathRenderer = new ArcRenderer.CachedPath();
                 }
-            });
-
-            mSweepDisappearingAnimator = ValueAnimator.ofFloat(mAdjustedMaxSweepAngle, mAdjustedMinSweepAngle);
-            mSweepDisappearingAnimator.setInterpolator(new FastOutSlowInInterpolator());
-            mSweepDisappearingAnimator.setDuration((long) (mSweepDuration / mSweepSpeed));
-            mSweepDisappearingAnimator.addUpdateListener(new ValueAnimator.AnimatorUpdateListener() {
-                @Override
-                public void onAnimationUpdate(ValueAnimator animation) {
-                    mCurrentSweepAngle = mAdjustedMaxSweepAngle - animation.getAnimatedFraction() * (mAdjustedMaxSweepAngle - mAdjustedMinSweepAngle);
-                    invalidateSelf();
-                }
-            });
-            mSweepDisappearingAnimator.addListener(new SimpleAnimatorListener() {
-                @Override
-                protected void onPreAnimationEnd(Animator animation) {
-                    if (isStartedAndNotCancelled()) {
-                        mSweepAppearing = true;
-                        mCurrentRotationOffset += mAdjustedMinSweepAngle;
-                        mSweepAppearingAnimator.start();
-                    }
-                }
-            });
+                arcRenderer = mCachedPathRenderer;
+                break;
+            case RENDERER_FAST:
+                arcRenderer = ArcRenderer.Fast.INSTANCE;
+                break;
+            default:
+                arcRenderer = ArcRenderer.DrawArc.INSTANCE;
         }
+        if (arcRenderer == mArcRenderer) {
+            return;
+        }
+        mArcRenderer = arcRenderer;
+        mPaint.setStrokeCap(arcRenderer.getStrokeCap(mSpec.getStrokeCap()));
+        updateAntiAlias();
+    }
 
-        mEndAnimator = ValueAnimator.ofFloat(1f, 0f);
-        mEndAnimator.setInterpolator(new LinearInterpolator());
-        mEndAnimator.setDuration((long) (mSweepDuration * (1 + mCurrentSweepAngle / 360f) / mSweepSpeed));
-        mEndAnimator.addUpdateListener(new ValueAnimator.AnimatorUpdateListener() {
-            @Override
-            public void onAnimationUpdate(ValueAnimator animation) {
-                mCurrentEndRatio = 1f - animation.getAnimatedFraction();
-            }
-        });
+    /**
+     * Tiny spinners without gradient take the fast path, but only when it looks the same: butt caps and no
+     * anti-aliasing from the detail profile. Thick round or square caps with a gradient take the cached path unless
+     * the sweep animates, which rebuilds the path every frame.
+     *
+     * @param diameter  0 while the bounds are unknown
+     * @param antiAlias whether the detail profile anti-aliases
+     */
+    static int chooseRenderer(float diameter, float strokeWidth, Paint.Cap cap, boolean gradient, boolean sweep,
+                              boolean antiAlias, float density) {
+        if (!gradient && cap == Paint.Cap.BUTT && !antiAlias
+                && diameter > 0f && diameter <= FAST_RENDERER_MAX_SIZE_DP * density) {
+            return RENDERER_FAST;
+        } else if (gradient && !sweep && cap != Paint.Cap.BUTT
+                && strokeWidth >= PATH_RENDERER_MIN_STROKE_WIDTH_DP * density) {
+            return RENDERER_PATH;
+        }
+        return RENDERER_DRAW_ARC;
+    }
+
+    private void updateAntiAlias() {
+        mPaint.setAntiAlias(mArcRenderer.isAntiAlias()
+                && mDetailProfile.isAntiAlias()
+                && (mQualityGovernor == null || mQualityGovernor.getLevel() < AdaptiveQualityGovernor.QUALITY_NO_ANTI_ALIAS));
+    }
+
+    private void updateTargetFrameRate() {
+        int targetFrameRate = DetailProfile.minFrameRate(mSpec.getTargetFrameRate(), mDetailProfile.getTargetFrameRate());
+        if (mQualityGovernor != null && mQualityGovernor.getLevel() >= AdaptiveQualityGovernor.QUALITY_HALF_FRAME_RATE) {
+            int displayFrameRate = (int) (1000000000L / mQualityGovernor.getExpectedFrameIntervalNanos());
+            targetFrameRate = Math.max(1, DetailProfile.minFrameRate(targetFrameRate, displayFrameRate) / 2);
+        }
+        mAnimation.setTargetFrameRate(targetFrameRate);
     }
 
     /**
-     * Since StrokeCap style, ROUND and SQUARE, will added extra stroke length, stroke ends may overlapped
-     * Also, they need at least 1px min sweep in order to prevent flash problem when sweep disappear
+     * Only paint and filter settings change, the clock keeps running
      */
-    private void adjustSweepAngleForStroke() {
-        /*
-        adjust min/max sweep angle if matched below conditions
-        - Cap type is ROUND or SQUARE (not BUTT)
-            - Stroke head will overlap the stroke end when max sweep (Max draw angle + stroke width > 360 degrees)
-            - Enabled gradient
-                - Min sweep < two stroke width
-         */
-        if (!mStrokeCap.equals(Paint.Cap.BUTT)) {
-            if (mGradient) {
-                double strokeWidthAngle = Math.toDegrees(Math.atan2(mStrokeWidthInPx / 2, (mRectF.right - mRectF.left) / 2)) * 2;
-                if (mMaxSweepAngle + mMinSweepAngle + strokeWidthAngle > 360) {
-                    mAdjustedMinSweepAngle = (float) (mMinSweepAngle + strokeWidthAngle);
-                    mAdjustedMaxSweepAngle = (float) (mMaxSweepAngle - strokeWidthAngle);
-                }
-                if (mMinSweepAngle < strokeWidthAngle * 2) {
-                    mAdjustedMinSweepAngle = (float) (strokeWidthAngle * 2);
-                }
-            }
+    private void updateDetailProfile() {
+        DetailProfile profile = DetailProfile.FULL;
+        if (mSpec.isLevelOfDetail()) {
+            float density = Resources.getSystem().getDisplayMetrics().density;
+            profile = DetailProfile.select(mRectF.width() + mSpec.getStrokeWidthInPx(),
+                    mSpec.getDetailSmallMaxSizeDp() * density, mSpec.getDetailMediumMaxSizeDp() * density);
+        }
+        if (profile == mDetailProfile) {
+            return;
+        }
+        mDetailProfile = profile;
+        int[] gradientColors = profile.reduceColors(mSpec.getColors());
+        if (gradientColors.length != mGradientColors.length) {
+            mGradientColors = gradientColors;
+            // rebuilt with the new stops on the next draw
+            mGradientShaderCache = null;
+        }
+        updateAntiAlias();
+        updateTargetFrameRate();
+    }
 
-            // make sure at least 1px for min sweep angle
-            if (mAdjustedMinSweepAngle < 1f) {
-                mAdjustedMinSweepAngle = 1f;
-            }
+    private void updateGradientShader() {
+        if (mArcRenderer.isCanvasTransformed()) {
+            mPaint.setShader(mGradientShaderCache.obtain(0f, mFrame.sweepAngle, 0f, 0f));
+        } else {
+            mPaint.setShader(mGradientShaderCache.obtain(mFrame.startAngle, mFrame.sweepAngle, mRectF.centerX(), mRectF.centerY()));
         }
     }
 
-    private SweepGradient calculateGradientShader(float startAngle, float sweepAngle) {
-        SweepGradient newShader;
+    private void startClock() {
+        if (mClock.isRunning()) {
+            return;
+        }
+        AnimationClock.setContextFrom(getCallback());
+        mReducedMotion = !mClock.start();
+        if (mReducedMotion) {
+            showReducedMotionFrame();
+            return;
+        }
+        if (mMetrics != null) {
+            mMetrics.clockStarts++;
+        }
+        if (mQualityGovernor != null) {
+            // the first interval after a pause is not a frame
+            mQualityGovernor.reset();
+        }
+    }
 
-        /*
-        For some reason, gradient's color positions need to have 0f, 1f position in previewer (not sure in actually device)
-        But the belows calculate will ignore this two position in order to make even color section
-        Thus, duplicating the first and last color can fix this issues
-         */
-        int[] colorListForShader = new int[mColors.length + 2];
-        colorListForShader[0] = mColors[0];
-        colorListForShader[colorListForShader.length - 1] = mColors[mColors.length - 1];
-        System.arraycopy(mColors, 0, colorListForShader, 1, mColors.length);
+    private void onClockTick(long elapsedNanos, long realElapsedNanos) {
+        if (mMetrics == null) {
+            computeFrame(elapsedNanos, realElapsedNanos);
+            return;
+        }
 
-        float[] positions = new float[colorListForShader.length];
-        float nonSweepSpacesOffset = (360f - sweepAngle) / 2;
-        float degreesPerColor = sweepAngle / mColors.length;
+        Trace.beginSection("IPBDrawable#tick");
+        mMetrics.clockTicks++;
+        computeFrame(elapsedNanos, realElapsedNanos);
+        if (mMetrics != null) {
+            long cycle = mAnimation.getCycle();
+            if (cycle != mMetricsCycle) {
+                mMetrics.cycles += Math.max(cycle - mMetricsCycle, 0);
+                mMetricsCycle = cycle;
+                if (mOnMetricsListener != null) {
+                    // a copy, so the listener cannot see counters change if it keeps the instance
+                    mMetricsSnapshot.set(mMetrics);
+                    mOnMetricsListener.onMetrics(mMetricsSnapshot);
+                }
+            }
+        }
+        Trace.endSection();
+    }
 
-        positions[0] = 0f;
-        positions[positions.length - 1] = 1f;
-        for (int i = 0; i < colorListForShader.length - 2; i++) {
-            positions[i + 1] = (degreesPerColor * (i + 0.5f) + nonSweepSpacesOffset) / 360f;
+    /**
+     * @param realElapsedNanos elapsed time without the animator duration scale
+     */
+    private void computeFrame(long elapsedNanos, long realElapsedNanos) {
+        if (mQualityGovernor != null) {
+            int oldLevel = mQualityGovernor.getLevel();
+            // frame intervals are real time, the duration scale would stretch them past the pause cutoff
+            if (mQualityGovernor.onFrame(realElapsedNanos)) {
+                applyQualityLevel(oldLevel, mQualityGovernor.getLevel());
+            }
+        }
+        long frameElapsedNanos = elapsedNanos;
+        int atlasFrameIndex = -1;
+        if (mAtlas != null && !mAnimation.isDeterminate() && !mAnimation.isEnding()
+                && elapsedNanos >= mAnimation.getArcSpec().getSweepDurationNanos()) {
+            // snap to the baked frame so the rotation matches the baked sweep
+            long elapsedInCycleNanos = elapsedNanos % mAtlas.getCycleNanos();
+            atlasFrameIndex = mAtlas.getFrameIndex(elapsedInCycleNanos);
+            frameElapsedNanos = elapsedNanos - elapsedInCycleNanos + mAtlas.getFrameTimeNanos(atlasFrameIndex);
         }
+        // the frame rate limit is in real time, only the frame itself follows the duration scale
+        int result = mAnimation.tick(elapsedNanos, frameElapsedNanos, realElapsedNanos,
+                Float.intBitsToFloat(mTargetProgressBits.get()), getMotionRadius());
 
-        newShader = new SweepGradient(mRectF.centerX(), mRectF.centerY(), colorListForShader, positions);
+        if (result == ArcAnimation.TICK_ENDED) {
+            finishProgressiveStop();
+            return;
+        } else if (result == ArcAnimation.TICK_SETTLED) {
+            invalidateSelf();
+            onProgressSettled();
+            return;
+        } else if (result == ArcAnimation.TICK_SKIPPED) {
+            return;
+        }
+        mAtlasFrameIndex = atlasFrameIndex;
+        if (mMetrics != null) {
+            mMetrics.invalidations++;
+        }
+        // the only invalidation of this frame
+        invalidateSelf();
+    }
 
-        Matrix gradientMatrix = new Matrix();
-        gradientMatrix.setRotate(startAngle + sweepAngle + nonSweepSpacesOffset, mRectF.centerX(), mRectF.centerY());
-        newShader.setLocalMatrix(gradientMatrix);
-        return newShader;
+    private void finishProgressiveStop() {
+        OnStopListener listener = mOnStopListener;
+        mOnStopListener = null;
+        stop();
+        if (listener != null) {
+            listener.onStop();
+        }
     }
 
-    abstract class SimpleAnimatorListener implements Animator.AnimatorListener {
-        private boolean mStarted = false;
-        private boolean mCancelled = false;
+    private void applyQualityLevel(int oldLevel, int level) {
+        if (mSpec.isGradient()) {
+            if (level >= AdaptiveQualityGovernor.QUALITY_SOLID_COLOR) {
+                // the head color, so the arc tip keeps its color
+                mPaint.setShader(null);
+                mPaint.setColor(mSpec.getColors()[mSpec.getColors().length - 1]);
+                mPaint.setAlpha(mAlpha);
+            }
+        }
+        updateAntiAlias();
+        updateTargetFrameRate();
+        invalidateSelf();
 
-        @Override
-        @CallSuper
-        public void onAnimationStart(Animator animation) {
-            mCancelled = false;
-            mStarted = true;
+        if (mOnQualityChangeListener != null) {
+            mOnQualityChangeListener.onQualityChanged(oldLevel, level);
         }
+    }
 
-        @Override
-        public final void onAnimationEnd(Animator animation) {
-            onPreAnimationEnd(animation);
-            mStarted = false;
+    private boolean isGradientDrawn() {
+        return mSpec.isGradient()
+                && (mQualityGovernor == null || mQualityGovernor.getLevel() < AdaptiveQualityGovernor.QUALITY_SOLID_COLOR);
+    }
+
+    private void onProgressSettled() {
+        mProgressIdle = true;
+        if (Float.intBitsToFloat(mTargetProgressBits.get()) != mAnimation.getProgress()) {
+            // updated after this tick read the target, but the update may have missed mProgressIdle
+            mProgressIdle = false;
+            return;
         }
+        mClock.pause();
+    }
 
-        protected void onPreAnimationEnd(Animator animation) {
+    /**
+     * Instead of spinning at scale 0, show one frame: the full arc, or the target progress without smoothing.
+     * Progress updates still wake the main thread, which redraws once.
+     */
+    private void showReducedMotionFrame() {
+        if (mAnimation.isDeterminate()) {
+            // idle before reading the target, so a concurrent update posts a wake
+            mProgressIdle = true;
         }
+        mAnimation.showStaticFrame(Float.intBitsToFloat(mTargetProgressBits.get()));
+        mAtlasFrameIndex = -1;
+        invalidateSelf();
+    }
 
-        @Override
-        @CallSuper
-        public void onAnimationCancel(Animator animation) {
-            mCancelled = true;
+    /**
+     * @return true while animations are off system-wide and a static frame is shown instead
+     */
+    public boolean isReducedMotion() {
+        return mReducedMotion;
+    }
+
+    private static Handler getMainHandler() {
+        synchronized (IntermediateProgressBarDrawable.class) {
+            if (sMainHandler == null) {
+                sMainHandler = new Handler(Looper.getMainLooper());
+            }
+            return sMainHandler;
+        }
+    }
+
+    /**
+     * @return pixels moved per radian of the frame angles, the arc radius or the track length over 2 pi
+     */
+    private float getMotionRadius() {
+        return mSpec.isHorizontal() ? mRectF.width() / (float) (2 * Math.PI) : mRectF.width() / 2;
+    }
+
+    /**
+     * Baked playback only applies to an animated sweep with a solid color
+     */
+    private boolean isBaked() {
+        return mSpec.getBakedFrameRate() > 0 && !mSpec.isGradient() && mSpec.isSweep() && !mSpec.isHorizontal()
+                && mSpec.getArcSpec().getSweepDurationNanos() > 0;
+    }
+
+    private void adjustSweepAngleForStroke() {
+        float minSweepAngle = Math.min(Math.max(mSpec.getMinSweepAngle(), mDetailProfile.getMinSweepAngle()), mSpec.getMaxSweepAngle());
+        mAnimation.setGeometry(minSweepAngle, mSpec.getMaxSweepAngle(), mSpec.getStrokeWidthInPx(),
+                mRectF.right - mRectF.left, mPaint.getStrokeCap() == Paint.Cap.BUTT, mSpec.isGradient());
+    }
+
+    static final class SpecState extends ConstantState {
+        final IntermediateProgressBarSpec mSpec;
+        final int mChangingConfigurations;
+
+        SpecState(IntermediateProgressBarSpec spec, int changingConfigurations) {
+            mSpec = spec;
+            mChangingConfigurations = changingConfigurations;
         }
 
+        @NonNull
         @Override
-        public void onAnimationRepeat(Animator animation) {
+        public Drawable newDrawable() {
+            return new IntermediateProgressBarDrawable(this);
         }
 
-        public boolean isStartedAndNotCancelled() {
-            return mStarted && !mCancelled;
+        @Override
+        public int getChangingConfigurations() {
+            return mChangingConfigurations;
         }
     }
 
     public static class Builder {
         private Context context;
+        private Resources.Theme theme;
         private boolean rotation = true;
         private boolean sweep = true;
         private long rotationDuration = 3000;
         private long sweepDuration = 1200;
         private float rotationSpeed = 1f;
         private float sweepSpeed = 1f;
+        private CubicBezierEasing sweepEasing = CubicBezierEasing.FAST_OUT_SLOW_IN;
         private float minSweepAngle = 25f;
         private float maxSweepAngle = 335f;
         private float startAtDegree = 0f;
@@ -502,10 +1083,80 @@ public class IntermediateProgressBarDrawable extends Drawable implements Animata
         private Paint.Cap strokeCap = Paint.Cap.ROUND;
         private int[] colors;
         private boolean gradient;
+        private float gradientAngleTolerance = GradientShaderCache.DEFAULT_ANGLE_TOLERANCE;
         private int size;
+        private boolean frameTicker;
+        private int bakedFrameRate;
+        private int targetFrameRate;
+        private float minInvalidatePixels = 0.5f;
+        private boolean horizontal;
+        private boolean adaptiveQuality;
+        private int renderer = RENDERER_AUTO;
+        private boolean levelOfDetail;
+        private float detailSmallMaxSizeDp = 24f;
+        private float detailMediumMaxSizeDp = 48f;
 
         public Builder(Context context) {
+            this(context, context.getTheme());
+        }
+
+        private Builder(Context context, Resources.Theme theme) {
             this.context = context;
+            this.theme = theme;
+        }
+
+        /**
+         * Read the IntermediateProgressBar styleable attributes, shared by the view and XML inflation
+         */
+        void applyAttributes(TypedArray styleArray, Resources resources) {
+            int color = styleArray.getColor(R.styleable.IntermediateProgressBar_ipb_color, R.attr.colorPrimary);
+            CharSequence[] gradient = styleArray.getTextArray(R.styleable.IntermediateProgressBar_ipb_gradientColorArray);
+            if (gradient != null) {
+                try {
+                    if (gradient.length > 1) {
+                        int firstColor = Color.parseColor(gradient[0].toString());
+                        int secondColor = Color.parseColor(gradient[1].toString());
+                        int[] otherColors = new int[gradient.length - 2];
+                        for (int i = 0; i < gradient.length - 2; i++) {
+                            otherColors[i] = Color.parseColor(gradient[i + 2].toString());
+                        }
+                        gradient(firstColor, secondColor, otherColors);
+                    } else {
+                        color(Color.parseColor(gradient[0].toString()));
+                    }
+                } catch (Exception e) {
+                    Log.e(TAG, "Invalid color code");
+                }
+            } else {
+                color(color);
+            }
+
+            sweepSpeed(styleArray.getFloat(R.styleable.IntermediateProgressBar_ipb_sweepSpeed, 1f));
+            rotationSpeed(styleArray.getFloat(R.styleable.IntermediateProgressBar_ipb_rotationSpeed, 1f));
+            minSweepAngle(styleArray.getFloat(R.styleable.IntermediateProgressBar_ipb_minSweepAngle, 0f));
+            maxSweepAngle(styleArray.getFloat(R.styleable.IntermediateProgressBar_ipb_maxSweepAngle, 360f));
+            startAtDegree(styleArray.getFloat(R.styleable.IntermediateProgressBar_ipb_startAngle, 0f));
+            sweep(styleArray.getBoolean(R.styleable.IntermediateProgressBar_ipb_sweep, true));
+            strokeWidth(styleArray.getDimensionPixelSize(R.styleable.IntermediateProgressBar_ipb_strokeWidth, (int) DimensionUtil.dpToPx(resources, 8)));
+            switch (styleArray.getInt(R.styleable.IntermediateProgressBar_ipb_strokeCap, 0)) {
+                case 1:
+                    strokeCap(Paint.Cap.ROUND);
+                    break;
+                case 2:
+                    strokeCap(Paint.Cap.SQUARE);
+                    break;
+                default:
+                    strokeCap(Paint.Cap.BUTT);
+            }
+            size(styleArray.getDimensionPixelSize(R.styleable.IntermediateProgressBar_ipb_size, 72));
+            horizontal(styleArray.getInt(R.styleable.IntermediateProgressBar_ipb_style, 0) == 1);
+            adaptiveQuality(styleArray.getBoolean(R.styleable.IntermediateProgressBar_ipb_adaptiveQuality, false));
+            renderer(styleArray.getInt(R.styleable.IntermediateProgressBar_ipb_renderer, RENDERER_AUTO));
+            levelOfDetail(styleArray.getBoolean(R.styleable.IntermediateProgressBar_ipb_levelOfDetail, false));
+            frameTicker(styleArray.getBoolean(R.styleable.IntermediateProgressBar_ipb_frameTicker, false));
+            baked(styleArray.getInt(R.styleable.IntermediateProgressBar_ipb_bakedFrameRate, 0));
+            targetFrameRate(styleArray.getInt(R.styleable.IntermediateProgressBar_ipb_targetFrameRate, 0));
+            minInvalidatePixels(styleArray.getFloat(R.styleable.IntermediateProgressBar_ipb_minInvalidatePixels, 0.5f));
         }
 
         public Builder rotation(boolean enable) {
@@ -538,6 +1189,18 @@ public class IntermediateProgressBarDrawable extends Drawable implements Animata
             return this;
         }
 
+        /**
+         * Custom sweep curve, same as a PathInterpolator with {@code cubicTo(x1, y1, x2, y2, 1, 1)}.
+         * The curve is sampled once into a table shared by every drawable using it.
+         *
+         * @param x1 must be in [0, 1]
+         * @param x2 must be in [0, 1]
+         */
+        public Builder sweepEasing(float x1, float y1, float x2, float y2) {
+            sweepEasing = new CubicBezierEasing(x1, y1, x2, y2);
+            return this;
+        }
+
         public Builder minSweepAngle(float angle) {
             if (angle < 0f) {
                 minSweepAngle = 0f;
@@ -598,28 +1261,209 @@ public class IntermediateProgressBarDrawable extends Drawable implements Animata
             return this;
         }
 
+        /**
+         * Each size step of the sweep gets its own cached gradient shader, kept while the drawable lives: at most
+         * {@code ceil(360 / degree) + 1}, 61 at the default.
+         *
+         * @param degree max difference in sweep angle at which a cached gradient shader is reused, the arc head stays
+         *               exact and the tail is within half of it. 6 degrees by default and at least.
+         */
+        public Builder gradientAngleTolerance(float degree) {
+            gradientAngleTolerance = degree;
+            return this;
+        }
+
         public Builder size(int px) {
             size = px;
             return this;
         }
 
+        /**
+         * Linear mode, segments moving along a horizontal line through the middle of the bounds, with the same
+         * speed, sweep, color and gradient options. 360 degrees of rotation or sweep are one track length.
+         * Size and baked mode do not apply.
+         */
+        public Builder horizontal(boolean enable) {
+            horizontal = enable;
+            return this;
+        }
+
+        /**
+         * Step the quality down while frames are dropped: gradient to solid color, then no anti-aliasing, then half
+         * the frame rate. Steps back up once frames recover.
+         *
+         * @see IntermediateProgressBarDrawable#setOnQualityChangeListener(OnQualityChangeListener)
+         */
+        public Builder adaptiveQuality(boolean enable) {
+            adaptiveQuality = enable;
+            return this;
+        }
+
+        /**
+         * How the circular arc is drawn:
+         * <ul>
+         * <li>{@link #RENDERER_DRAW_ARC}: {@link Canvas#drawArc(RectF, float, float, boolean, Paint)}</li>
+         * <li>{@link #RENDERER_PATH}: a reused path rotated into place, so its tessellation is cached as long as the
+         * sweep angle does not change, for thick round or square caps without sweep animation</li>
+         * <li>{@link #RENDERER_FAST}: drawArc forced to butt caps and no anti-aliasing, whatever the configured
+         * {@link #strokeCap(Paint.Cap)}. Visibly different from the default look: square arc ends and jagged edges.
+         * The sweep angles are then adjusted for butt caps.</li>
+         * <li>{@link #RENDERER_AUTO} (default): fast up to 20dp without gradient, only when the stroke cap is already
+         * butt and the detail profile turns anti-aliasing off, so the look never changes. Path from a 6dp stroke with
+         * a gradient, round or square caps and no sweep animation. DrawArc otherwise. Picked again on every size
+         * change.</li>
+         * </ul>
+         */
+        public Builder renderer(int renderer) {
+            this.renderer = renderer;
+            return this;
+        }
+
+        /**
+         * Pick a {@link DetailProfile} from the drawn size (arc diameter plus stroke width) on every bounds change:
+         * {@link DetailProfile#SMALL} up to the small threshold (2 gradient colors, no anti-aliasing, 30fps, at least
+         * 45 degrees of sweep), {@link DetailProfile#MEDIUM} up to the medium threshold (3 gradient colors), and
+         * {@link DetailProfile#FULL} above. The circular mode only.
+         *
+         * @see #levelOfDetailThresholds(float, float)
+         */
+        public Builder levelOfDetail(boolean enable) {
+            levelOfDetail = enable;
+            return this;
+        }
+
+        /**
+         * @param smallMaxSizeDp  24dp by default
+         * @param mediumMaxSizeDp 48dp by default
+         */
+        public Builder levelOfDetailThresholds(float smallMaxSizeDp, float mediumMaxSizeDp) {
+            detailSmallMaxSizeDp = smallMaxSizeDp;
+            detailMediumMaxSizeDp = mediumMaxSizeDp;
+            return this;
+        }
+
+        /**
+         * Drive the animation from the process-wide {@link FrameTicker} instead of a per drawable {@link android.animation.TimeAnimator}
+         */
+        public Builder frameTicker(boolean enable) {
+            frameTicker = enable;
+            return this;
+        }
+
+        /**
+         * Play a pre-rendered sweep cycle at {@code frameRate} fps instead of drawing the arc on every frame,
+         * only applies to a solid color and a sweep duration above 0. The frames are shared through
+         * {@link SpriteAtlasCache} and baked in the background, the arc is drawn live until they are ready.
+         *
+         * @param frameRate 0 to disable
+         */
+        public Builder baked(int frameRate) {
+            bakedFrameRate = Math.max(0, frameRate);
+            return this;
+        }
+
+        /**
+         * @param frameRate max frames drawn per second, 0 to draw at the display frame rate
+         */
+        public Builder targetFrameRate(int frameRate) {
+            targetFrameRate = Math.max(0, frameRate);
+            return this;
+        }
+
+        /**
+         * Skip redrawing until either end of the arc moved by at least {@code px}, 0.5px by default
+         */
+        public Builder minInvalidatePixels(float px) {
+            minInvalidatePixels = px;
+            return this;
+        }
+
+        /**
+         * Build an {@link android.graphics.drawable.AnimatedVectorDrawable} equivalent, its animation runs on the
+         * RenderThread from API 25 and keeps moving while the UI thread is busy.
+         * <p>
+         * The vector only reproduces the default rotation, sweep and stroke cap with a solid color, its stroke width
+         * is 1/12 of the drawable size. Any other configuration, or an API level below 25, falls back to {@link #build()}.
+         *
+         * @return an {@link Animatable} drawable, call {@link Animatable#start()} to start it
+         */
+        public Drawable buildForRenderThread() {
+            if (Build.VERSION.SDK_INT < Build.VERSION_CODES.N_MR1 || !isAnimatedVectorEquivalent()) {
+                return build();
+            }
+
+            Drawable drawable = context.getDrawable(R.drawable.ipb_animated_spinner).mutate();
+            drawable.setTint(resolveColors()[0]);
+            return drawable;
+        }
+
+        /**
+         * Values hardcoded in ipb_animated_spinner and its animators
+         */
+        private boolean isAnimatedVectorEquivalent() {
+            return rotation && sweep
+                    && rotationDuration == 3000 && sweepDuration == 1200
+                    && rotationSpeed == 1f && sweepSpeed == 1f
+                    && sweepEasing.equals(CubicBezierEasing.FAST_OUT_SLOW_IN)
+                    && minSweepAngle == 25f && maxSweepAngle == 335f
+                    && startAtDegree == 0f
+                    && strokeCap == Paint.Cap.ROUND
+                    && (colors == null || !gradient)
+                    && !horizontal;
+        }
+
         public IntermediateProgressBarDrawable build() {
-            return new IntermediateProgressBarDrawable(
-                    context,
+            return create(buildSpec(), context);
+        }
+
+        IntermediateProgressBarSpec buildSpec() {
+            return new IntermediateProgressBarSpec(
                     sweep,
                     rotation,
                     rotationDuration,
                     sweepDuration,
                     rotationSpeed,
                     sweepSpeed,
+                    sweepEasing,
                     maxSweepAngle,
                     minSweepAngle,
                     startAtDegree,
                     strokeWidthInPx,
                     strokeCap,
-                    colors,
-                    gradient,
-                    size);
+                    resolveColors(),
+                    gradient && colors != null && colors.length > 1,
+                    gradientAngleTolerance,
+                    size,
+                    frameTicker,
+                    bakedFrameRate,
+                    targetFrameRate,
+                    minInvalidatePixels,
+                    horizontal,
+                    adaptiveQuality,
+                    renderer,
+                    levelOfDetail,
+                    detailSmallMaxSizeDp,
+                    detailMediumMaxSizeDp);
+        }
+
+        private int[] resolveColors() {
+            if (gradient && colors != null && colors.length > 1) {
+                // The order of colors need to be reversed since the end of the gradient will be the "head" of stroke
+                int[] reversedColors = new int[colors.length];
+                for (int i = 0; i < colors.length; i++) {
+                    reversedColors[i] = colors[colors.length - 1 - i];
+                }
+                return reversedColors;
+            } else if (colors == null) {
+                // Apply app theme primary color if there is no color specified
+                TypedValue typedValue = new TypedValue();
+                if (theme != null) {
+                    theme.resolveAttribute(R.attr.colorPrimary, typedValue, true);
+                }
+                return new int[]{typedValue.data};
+            } else {
+                return colors.clone();
+            }
         }
     }
 }
@@ -0,0 +1,82 @@
+package com.gmail.pingkiuho.intermediateprogressbardrawable.progressbar;
+
+import android.content.Context;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * Process-wide pool of idle {@link IntermediateProgressBarDrawable}s keyed by their spec, for lists where every row
+ * has a spinner. A released drawable keeps its paint, clock and shaders, so binding a recycled row does not allocate.
+ * The pool is bounded by the total number of idle drawables.
+ * <p>
+ * Must be used from the main thread.
+ */
+public final class IntermediateProgressBarDrawablePool {
+    public static final int DEFAULT_MAX_SIZE = 16;
+
+    private static final HashMap<IntermediateProgressBarSpec, ArrayList<IntermediateProgressBarDrawable>> sPool = new HashMap<>();
+    private static int sMaxSize = DEFAULT_MAX_SIZE;
+    private static int sSize;
+
+    private IntermediateProgressBarDrawablePool() {
+    }
+
+    /**
+     * Idle drawables over the new size are dropped
+     */
+    public static void setMaxSize(int maxSize) {
+        sMaxSize = maxSize;
+        if (sSize > maxSize) {
+            clear();
+        }
+    }
+
+    public static void clear() {
+        for (ArrayList<IntermediateProgressBarDrawable> drawables : sPool.values()) {
+            for (int i = 0; i < drawables.size(); i++) {
+                drawables.get(i).stop();
+            }
+        }
+        sPool.clear();
+        sSize = 0;
+    }
+
+    /**
+     * @return a stopped drawable for the spec, idle in the pool or new, in the same state as a new one
+     */
+    public static IntermediateProgressBarDrawable acquire(Context context, IntermediateProgressBarSpec spec) {
+        ArrayList<IntermediateProgressBarDrawable> drawables = sPool.get(spec);
+        if (drawables == null || drawables.isEmpty()) {
+            return IntermediateProgressBarDrawable.create(spec, context);
+        }
+        sSize--;
+        return drawables.remove(drawables.size() - 1);
+    }
+
+    /**
+     * Stops the drawable and detaches its callback. The caller must not use it afterwards.
+     * A pending progressive stop listener is called last, whether the drawable was pooled or dropped, so it may
+     * acquire again.
+     */
+    public static void release(IntermediateProgressBarDrawable drawable) {
+        IntermediateProgressBarDrawable.OnStopListener listener = drawable.recycle();
+        if (sSize >= sMaxSize) {
+            // dropped, the clock is not kept for a next user
+            drawable.stop();
+        } else {
+            IntermediateProgressBarSpec spec = drawable.getSpec();
+            ArrayList<IntermediateProgressBarDrawable> drawables = sPool.get(spec);
+            if (drawables == null) {
+                drawables = new ArrayList<>();
+                sPool.put(spec, drawables);
+            }
+            drawables.add(drawable);
+            sSize++;
+        }
+
+        if (listener != null) {
+            listener.onStop();
+        }
+    }
+}
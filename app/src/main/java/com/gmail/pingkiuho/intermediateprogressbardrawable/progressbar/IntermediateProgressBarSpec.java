@@ -0,0 +1,257 @@
+package com.gmail.pingkiuho.intermediateprogressbardrawable.progressbar;
+
+import android.graphics.Paint;
+
+import com.gmail.pingkiuho.intermediateprogressbardrawable.progressbar.model.ArcSpec;
+import com.gmail.pingkiuho.intermediateprogressbardrawable.progressbar.model.CubicBezierEasing;
+
+import java.util.Arrays;
+
+/**
+ * Immutable, precomputed configuration of {@link IntermediateProgressBarDrawable}, built by its {@link IntermediateProgressBarDrawable.Builder}.
+ * <p>
+ * Colors are already resolved (theme color applied, gradient order reversed) and the animation timing is already
+ * converted to an {@link ArcSpec}, so drawables sharing a spec through their constant state do not redo any of it.
+ * Specs built from the same configuration are equal, e.g. to key {@link IntermediateProgressBarDrawablePool}.
+ */
+public final class IntermediateProgressBarSpec {
+    private final boolean mSweep;
+    private final boolean mRotation;
+    private final float mMinSweepAngle;
+    private final float mMaxSweepAngle;
+    private final float mStrokeWidthInPx;
+    private final Paint.Cap mStrokeCap;
+    private final int[] mColors;
+    private final boolean mGradient;
+    private final float mGradientAngleTolerance;
+    private final int mSize;
+    private final boolean mFrameTicker;
+    private final int mBakedFrameRate;
+    private final int mTargetFrameRate;
+    private final float mMinInvalidatePixels;
+    private final boolean mHorizontal;
+    private final boolean mAdaptiveQuality;
+    private final int mRenderer;
+    private final boolean mLevelOfDetail;
+    private final float mDetailSmallMaxSizeDp;
+    private final float mDetailMediumMaxSizeDp;
+    private final ArcSpec mArcSpec;
+    // computed once, specs are pool keys looked up on every row bind
+    private final int mHashCode;
+
+    IntermediateProgressBarSpec(boolean sweep,
+                                boolean rotation,
+                                long rotationDuration,
+                                long sweepDuration,
+                                float rotationSpeed,
+                                float sweepSpeed,
+                                CubicBezierEasing sweepEasing,
+                                float maxSweepAngle,
+                                float minSweepAngle,
+                                float startAtDegree,
+                                float strokeWidthInPx,
+                                Paint.Cap strokeCap,
+                                int[] colors,
+                                boolean gradient,
+                                float gradientAngleTolerance,
+                                int size,
+                                boolean frameTicker,
+                                int bakedFrameRate,
+                                int targetFrameRate,
+                                float minInvalidatePixels,
+                                boolean horizontal,
+                                boolean adaptiveQuality,
+                                int renderer,
+                                boolean levelOfDetail,
+                                float detailSmallMaxSizeDp,
+                                float detailMediumMaxSizeDp) {
+        mSweep = sweep;
+        mRotation = rotation;
+        mMinSweepAngle = minSweepAngle;
+        mMaxSweepAngle = maxSweepAngle;
+        mStrokeWidthInPx = strokeWidthInPx;
+        mStrokeCap = strokeCap;
+        mColors = colors;
+        mGradient = gradient;
+        mGradientAngleTolerance = gradientAngleTolerance;
+        mSize = size;
+        mFrameTicker = frameTicker;
+        mBakedFrameRate = bakedFrameRate;
+        mTargetFrameRate = targetFrameRate;
+        mMinInvalidatePixels = minInvalidatePixels;
+        mHorizontal = horizontal;
+        mAdaptiveQuality = adaptiveQuality;
+        mRenderer = renderer;
+        mLevelOfDetail = levelOfDetail;
+        mDetailSmallMaxSizeDp = detailSmallMaxSizeDp;
+        mDetailMediumMaxSizeDp = detailMediumMaxSizeDp;
+
+        mArcSpec = new ArcSpec.Builder()
+                .sweep(sweep)
+                .rotation(rotation)
+                .rotationDurationNanos((long) (rotationDuration / rotationSpeed) * 1000000L)
+                .sweepDurationNanos((long) (sweepDuration / sweepSpeed) * 1000000L)
+                .sweepEasing(sweepEasing)
+                .startAtDegree(startAtDegree)
+                .minSweepAngle(minSweepAngle)
+                .maxSweepAngle(maxSweepAngle)
+                .build();
+        mHashCode = computeHashCode();
+    }
+
+    public boolean isSweep() {
+        return mSweep;
+    }
+
+    public boolean isRotation() {
+        return mRotation;
+    }
+
+    public float getMinSweepAngle() {
+        return mMinSweepAngle;
+    }
+
+    public float getMaxSweepAngle() {
+        return mMaxSweepAngle;
+    }
+
+    public float getStrokeWidthInPx() {
+        return mStrokeWidthInPx;
+    }
+
+    public Paint.Cap getStrokeCap() {
+        return mStrokeCap;
+    }
+
+    /**
+     * @return resolved colors, in drawing order for a gradient. Must not be modified.
+     */
+    public int[] getColors() {
+        return mColors;
+    }
+
+    public boolean isGradient() {
+        return mGradient;
+    }
+
+    public float getGradientAngleTolerance() {
+        return mGradientAngleTolerance;
+    }
+
+    public int getSize() {
+        return mSize;
+    }
+
+    public boolean isFrameTicker() {
+        return mFrameTicker;
+    }
+
+    public int getBakedFrameRate() {
+        return mBakedFrameRate;
+    }
+
+    public int getTargetFrameRate() {
+        return mTargetFrameRate;
+    }
+
+    public float getMinInvalidatePixels() {
+        return mMinInvalidatePixels;
+    }
+
+    public boolean isHorizontal() {
+        return mHorizontal;
+    }
+
+    public boolean isAdaptiveQuality() {
+        return mAdaptiveQuality;
+    }
+
+    /**
+     * @return one of the IntermediateProgressBarDrawable RENDERER_ constants
+     */
+    public int getRenderer() {
+        return mRenderer;
+    }
+
+    public boolean isLevelOfDetail() {
+        return mLevelOfDetail;
+    }
+
+    public float getDetailSmallMaxSizeDp() {
+        return mDetailSmallMaxSizeDp;
+    }
+
+    public float getDetailMediumMaxSizeDp() {
+        return mDetailMediumMaxSizeDp;
+    }
+
+    /**
+     * @return animation timing, with the sweep angles not yet adjusted for the stroke cap
+     */
+    public ArcSpec getArcSpec() {
+        return mArcSpec;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof IntermediateProgressBarSpec)) {
+            return false;
+        }
+        IntermediateProgressBarSpec other = (IntermediateProgressBarSpec) o;
+        return mHashCode == other.mHashCode
+                && mSweep == other.mSweep
+                && mRotation == other.mRotation
+                && Float.compare(mMinSweepAngle, other.mMinSweepAngle) == 0
+                && Float.compare(mMaxSweepAngle, other.mMaxSweepAngle) == 0
+                && Float.compare(mStrokeWidthInPx, other.mStrokeWidthInPx) == 0
+                && mStrokeCap == other.mStrokeCap
+                && Arrays.equals(mColors, other.mColors)
+                && mGradient == other.mGradient
+                && Float.compare(mGradientAngleTolerance, other.mGradientAngleTolerance) == 0
+                && mSize == other.mSize
+                && mFrameTicker == other.mFrameTicker
+                && mBakedFrameRate == other.mBakedFrameRate
+                && mTargetFrameRate == other.mTargetFrameRate
+                && Float.compare(mMinInvalidatePixels, other.mMinInvalidatePixels) == 0
+                && mHorizontal == other.mHorizontal
+                && mAdaptiveQuality == other.mAdaptiveQuality
+                && mRenderer == other.mRenderer
+                && mLevelOfDetail == other.mLevelOfDetail
+                && Float.compare(mDetailSmallMaxSizeDp, other.mDetailSmallMaxSizeDp) == 0
+                && Float.compare(mDetailMediumMaxSizeDp, other.mDetailMediumMaxSizeDp) == 0
+                && mArcSpec.equals(other.mArcSpec);
+    }
+
+    @Override
+    public int hashCode() {
+        return mHashCode;
+    }
+
+    private int computeHashCode() {
+        int result = mSweep ? 1 : 0;
+        result = 31 * result + (mRotation ? 1 : 0);
+        result = 31 * result + Float.floatToIntBits(mMinSweepAngle);
+        result = 31 * result + Float.floatToIntBits(mMaxSweepAngle);
+        result = 31 * result + Float.floatToIntBits(mStrokeWidthInPx);
+        result = 31 * result + mStrokeCap.hashCode();
+        result = 31 * result + Arrays.hashCode(mColors);
+        result = 31 * result + (mGradient ? 1 : 0);
+        result = 31 * result + Float.floatToIntBits(mGradientAngleTolerance);
+        result = 31 * result + mSize;
+        result = 31 * result + (mFrameTicker ? 1 : 0);
+        result = 31 * result + mBakedFrameRate;
+        result = 31 * result + mTargetFrameRate;
+        result = 31 * result + Float.floatToIntBits(mMinInvalidatePixels);
+        result = 31 * result + (mHorizontal ? 1 : 0);
+        result = 31 * result + (mAdaptiveQuality ? 1 : 0);
+        result = 31 * result + mRenderer;
+        result = 31 * result + (mLevelOfDetail ? 1 : 0);
+        result = 31 * result + Float.floatToIntBits(mDetailSmallMaxSizeDp);
+        result = 31 * result + Float.floatToIntBits(mDetailMediumMaxSizeDp);
+        result = 31 * result + mArcSpec.hashCode();
+        return result;
+    }
+}
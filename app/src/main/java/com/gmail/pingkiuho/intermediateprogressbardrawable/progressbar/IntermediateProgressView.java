@@ -0,0 +1,190 @@
+package com.gmail.pingkiuho.intermediateprogressbardrawable.progressbar;
+
+import android.content.Context;
+import android.content.res.TypedArray;
+import android.graphics.Canvas;
+import android.graphics.drawable.Drawable;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.util.AttributeSet;
+import android.view.View;
+
+import com.gmail.pingkiuho.intermediateprogressbardrawable.R;
+
+/**
+ * Hosts {@link IntermediateProgressBarDrawable} directly on a plain {@link View}, without the measurement,
+ * animation plumbing and accessibility events of {@link android.widget.ProgressBar}.
+ * <p>
+ * Takes the same XML attributes as {@link IntermediateProgressBar}, so either can be used in a layout. The wanted
+ * size is {@code ipb_size} plus padding (at least {@code android:minWidth}/{@code minHeight}), and an exact
+ * measure spec is taken as is.
+ */
+public class IntermediateProgressView extends View {
+    public static final String TAG = IntermediateProgressView.class.getSimpleName();
+
+    private final IntermediateProgressBarDrawable mDrawable;
+    private boolean mStartRequested = true;
+    private boolean mAttached;
+
+    public IntermediateProgressView(Context context) {
+        this(context, null);
+    }
+
+    public IntermediateProgressView(Context context, @Nullable AttributeSet attrs) {
+        this(context, attrs, R.attr.intermediateProgressBarStyle);
+    }
+
+    public IntermediateProgressView(Context context, @Nullable AttributeSet attrs, int defStyleAttr) {
+        super(context, attrs, defStyleAttr);
+
+        final TypedArray styleArray = context.obtainStyledAttributes(attrs, R.styleable.IntermediateProgressBar, defStyleAttr, R.style.IntermediateProgressBarStyle);
+
+        IntermediateProgressBarDrawable.Builder builder = new IntermediateProgressBarDrawable.Builder(context);
+
+        builder.applyAttributes(styleArray, context.getResources());
+
+        styleArray.recycle();
+
+        mDrawable = builder.build();
+        mDrawable.setCallback(this);
+    }
+
+    public IntermediateProgressBarDrawable getDrawable() {
+        return mDrawable;
+    }
+
+    public void start() {
+        mStartRequested = true;
+        mDrawable.start();
+        updateDrawableVisibility();
+    }
+
+    public void stop() {
+        mStartRequested = false;
+        mDrawable.stop();
+    }
+
+    public void progressiveStop() {
+        mStartRequested = false;
+        mDrawable.progressiveStop(null);
+    }
+
+    /**
+     * @see IntermediateProgressBarDrawable#setDeterminate(boolean)
+     */
+    public void setDeterminate(boolean determinate) {
+        mDrawable.setDeterminate(determinate);
+    }
+
+    /**
+     * Safe to call from any thread, see {@link IntermediateProgressBarDrawable#setProgress(float)}
+     *
+     * @param progress in [0, 1]
+     */
+    public void setProgressFraction(float progress) {
+        mDrawable.setProgress(progress);
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        if (MeasureSpec.getMode(widthMeasureSpec) == MeasureSpec.EXACTLY
+                && MeasureSpec.getMode(heightMeasureSpec) == MeasureSpec.EXACTLY) {
+            setMeasuredDimension(MeasureSpec.getSize(widthMeasureSpec), MeasureSpec.getSize(heightMeasureSpec));
+            return;
+        }
+
+        IntermediateProgressBarSpec spec = mDrawable.getSpec();
+        int size = spec.getSize();
+        // a track is as long as the size and as thick as the stroke
+        int contentHeight = spec.isHorizontal() ? (int) Math.ceil(spec.getStrokeWidthInPx()) : size;
+        int width = Math.max(size + getPaddingLeft() + getPaddingRight(), getSuggestedMinimumWidth());
+        int height = Math.max(contentHeight + getPaddingTop() + getPaddingBottom(), getSuggestedMinimumHeight());
+        setMeasuredDimension(resolveSize(width, widthMeasureSpec), resolveSize(height, heightMeasureSpec));
+    }
+
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        mDrawable.setBounds(getPaddingLeft(), getPaddingTop(), w - getPaddingRight(), h - getPaddingBottom());
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        mDrawable.draw(canvas);
+    }
+
+    /**
+     * The arc never overlaps itself with different colors, so no offscreen layer is needed for alpha
+     */
+    @Override
+    public boolean hasOverlappingRendering() {
+        return false;
+    }
+
+    @Override
+    protected boolean verifyDrawable(@NonNull Drawable who) {
+        return who == mDrawable || super.verifyDrawable(who);
+    }
+
+    /**
+     * A plain invalidate(): with hardware acceleration a dirty rect is ignored and the whole view is redrawn anyway
+     */
+    @Override
+    public void invalidateDrawable(@NonNull Drawable drawable) {
+        if (drawable == mDrawable) {
+            invalidate();
+        } else {
+            super.invalidateDrawable(drawable);
+        }
+    }
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        mAttached = true;
+        if (mStartRequested && !mDrawable.isRunning()) {
+            mDrawable.start();
+        }
+        updateDrawableVisibility();
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        mAttached = false;
+        updateDrawableVisibility();
+        super.onDetachedFromWindow();
+    }
+
+    @Override
+    protected void onVisibilityChanged(@NonNull View changedView, int visibility) {
+        super.onVisibilityChanged(changedView, visibility);
+        updateDrawableVisibility();
+    }
+
+    @Override
+    public void onVisibilityAggregated(boolean isVisible) {
+        super.onVisibilityAggregated(isVisible);
+        updateDrawableVisibility();
+    }
+
+    @Override
+    protected void onWindowVisibilityChanged(int visibility) {
+        super.onWindowVisibilityChanged(visibility);
+        updateDrawableVisibility();
+    }
+
+    @Override
+    public void onWindowFocusChanged(boolean hasWindowFocus) {
+        super.onWindowFocusChanged(hasWindowFocus);
+        updateDrawableVisibility();
+    }
+
+    private void updateDrawableVisibility() {
+        if (mDrawable == null) {
+            // called by the super constructor
+            return;
+        }
+        boolean visible = mAttached && isShown() && getWindowVisibility() == VISIBLE && hasWindowFocus();
+        mDrawable.setVisible(visible, false);
+    }
+}
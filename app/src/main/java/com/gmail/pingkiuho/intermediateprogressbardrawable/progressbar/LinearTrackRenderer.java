@@ -0,0 +1,73 @@
+package com.gmail.pingkiuho.intermediateprogressbardrawable.progressbar;
+
+import android.graphics.Canvas;
+import android.graphics.LinearGradient;
+import android.graphics.Matrix;
+import android.graphics.Paint;
+import android.graphics.RectF;
+import android.graphics.Shader;
+
+import com.gmail.pingkiuho.intermediateprogressbardrawable.progressbar.model.ArcFrame;
+import com.gmail.pingkiuho.intermediateprogressbardrawable.progressbar.model.LinearSegments;
+
+/**
+ * Draws the linear mode of {@link IntermediateProgressBarDrawable}, the arc frame mapped onto a horizontal track
+ * by {@link LinearSegments}.
+ * <p>
+ * The (at most two) segments live in one preallocated array, and a gradient is a single unit-length
+ * {@link LinearGradient} stretched over each segment with a reused local matrix, so drawing does not allocate.
+ */
+class LinearTrackRenderer {
+    private final float[] mSegments = new float[LinearSegments.SIZE];
+    private final int[] mColors;
+    private final boolean mGradient;
+    private final Matrix mMatrix = new Matrix();
+    private LinearGradient mShader;
+
+    /**
+     * @param colors in drawing order, for a gradient the last color is at the segment head
+     */
+    LinearTrackRenderer(int[] colors, boolean gradient) {
+        mColors = colors;
+        mGradient = gradient;
+    }
+
+    /**
+     * @param track    area of the track, the segments are drawn along its vertical center and clipped to it
+     * @param gradient false to draw a gradient mode with the paint's solid color
+     */
+    void draw(Canvas canvas, RectF track, ArcFrame frame, Paint paint, boolean gradient) {
+        int count = LinearSegments.compute(frame, track.width(), mSegments);
+        if (count == 0) {
+            return;
+        }
+
+        boolean drawGradient = mGradient && gradient;
+        if (drawGradient && mShader == null) {
+            mShader = new LinearGradient(0f, 0f, 1f, 0f, mColors, null, Shader.TileMode.CLAMP);
+        }
+        paint.setShader(drawGradient ? mShader : null);
+
+        int saveCount = canvas.save();
+        // caps at the wrapping point would otherwise stick out of the track
+        canvas.clipRect(track.left, track.top, track.right, track.bottom);
+        float centerY = track.centerY();
+        drawSegment(canvas, track, centerY, mSegments[LinearSegments.FIRST_START], mSegments[LinearSegments.FIRST_END], 0f, paint, drawGradient);
+        if (count == 2) {
+            // the wrapped part continues the same gradient from one track length to the left
+            drawSegment(canvas, track, centerY, mSegments[LinearSegments.SECOND_START], mSegments[LinearSegments.SECOND_END],
+                    -track.width(), paint, drawGradient);
+        }
+        canvas.restoreToCount(saveCount);
+    }
+
+    private void drawSegment(Canvas canvas, RectF track, float centerY, float start, float end, float gradientOffset,
+                             Paint paint, boolean gradient) {
+        if (gradient) {
+            mMatrix.setScale(Math.max(mSegments[LinearSegments.LOGICAL_LENGTH], 1f), 1f);
+            mMatrix.postTranslate(track.left + mSegments[LinearSegments.LOGICAL_START] + gradientOffset, 0f);
+            mShader.setLocalMatrix(mMatrix);
+        }
+        canvas.drawLine(track.left + start, centerY, track.left + end, centerY, paint);
+    }
+}
@@ -0,0 +1,174 @@
+package com.gmail.pingkiuho.intermediateprogressbardrawable.progressbar;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.RectF;
+
+import com.gmail.pingkiuho.intermediateprogressbardrawable.progressbar.model.ArcFrame;
+import com.gmail.pingkiuho.intermediateprogressbardrawable.progressbar.model.ArcFrameModel;
+import com.gmail.pingkiuho.intermediateprogressbardrawable.progressbar.model.ArcSpec;
+import com.gmail.pingkiuho.intermediateprogressbardrawable.progressbar.model.EasingTable;
+
+/**
+ * One steady sweep cycle of a solid color arc, pre-rendered into a single {@link Bitmap.Config#ALPHA_8} bitmap.
+ * <p>
+ * Frames are rendered at start angle 0, the rotation is applied by the canvas at playback, so only the sweep
+ * (appearing then disappearing) needs to be baked. The color comes from the paint used to draw the bitmap,
+ * thus spinners with different colors share the same atlas.
+ */
+class SpriteAtlas {
+    private static final int MAX_BITMAP_SIZE = 4096;
+
+    private final Key mKey;
+    private final Bitmap mBitmap;
+    private final int mColumns;
+    private final int mFrameCount;
+    private final Rect mSrcRect = new Rect();
+    private final Rect mDstRect;
+
+    private SpriteAtlas(Key key, Bitmap bitmap, int columns, int frameCount) {
+        mKey = key;
+        mBitmap = bitmap;
+        mColumns = columns;
+        mFrameCount = frameCount;
+        mDstRect = new Rect(0, 0, key.cellSize, key.cellSize);
+    }
+
+    /**
+     * Software rendering only, safe to call off the main thread
+     *
+     * @return the baked atlas, or null if it would exceed the max bitmap size or there is no sweep cycle to bake
+     */
+    static SpriteAtlas bake(Key key, ArcSpec spec) {
+        if (key.sweepDurationNanos <= 0 || key.frameRate <= 0) {
+            return null;
+        }
+        long cycleNanos = key.sweepDurationNanos * 2;
+        int frameCount = Math.max(1, (int) Math.ceil(cycleNanos * key.frameRate / 1e9));
+        int columns = (int) Math.ceil(Math.sqrt(frameCount));
+        int rows = (int) Math.ceil(frameCount / (float) columns);
+        if (columns * key.cellSize > MAX_BITMAP_SIZE || rows * key.cellSize > MAX_BITMAP_SIZE) {
+            return null;
+        }
+
+        Bitmap bitmap = Bitmap.createBitmap(columns * key.cellSize, rows * key.cellSize, Bitmap.Config.ALPHA_8);
+        Canvas canvas = new Canvas(bitmap);
+        Paint paint = new Paint();
+        paint.setFlags(Paint.ANTI_ALIAS_FLAG);
+        paint.setStyle(Paint.Style.STROKE);
+        paint.setStrokeWidth(key.strokeWidthInPx);
+        paint.setStrokeCap(key.strokeCap);
+
+        SpriteAtlas atlas = new SpriteAtlas(key, bitmap, columns, frameCount);
+        ArcFrame frame = new ArcFrame();
+        RectF arcRect = new RectF();
+        float radius = key.diameter / 2;
+        for (int i = 0; i < frameCount; i++) {
+            // bake the second cycle, the first appearing sweep grows from 0 and is drawn live
+            ArcFrameModel.compute(spec, cycleNanos + atlas.getFrameTimeNanos(i), ArcFrameModel.NOT_ENDING, frame);
+            float centerX = (i % columns) * key.cellSize + key.cellSize / 2f;
+            float centerY = (i / columns) * key.cellSize + key.cellSize / 2f;
+            arcRect.set(centerX - radius, centerY - radius, centerX + radius, centerY + radius);
+            canvas.drawArc(arcRect, 0, frame.sweepAngle, false, paint);
+        }
+        return atlas;
+    }
+
+    Key getKey() {
+        return mKey;
+    }
+
+    int getByteCount() {
+        return mBitmap.getByteCount();
+    }
+
+    long getCycleNanos() {
+        return mKey.sweepDurationNanos * 2;
+    }
+
+    int getFrameIndex(long elapsedInCycleNanos) {
+        return Math.min((int) (elapsedInCycleNanos * mKey.frameRate / 1000000000L), mFrameCount - 1);
+    }
+
+    long getFrameTimeNanos(int frameIndex) {
+        return frameIndex * 1000000000L / mKey.frameRate;
+    }
+
+    /**
+     * Draw the frame centered in {@code arcRect}, rotated by {@code startAngle}
+     */
+    void draw(Canvas canvas, int frameIndex, RectF arcRect, float startAngle, Paint paint) {
+        int left = (frameIndex % mColumns) * mKey.cellSize;
+        int top = (frameIndex / mColumns) * mKey.cellSize;
+        mSrcRect.set(left, top, left + mKey.cellSize, top + mKey.cellSize);
+
+        float centerX = arcRect.centerX();
+        float centerY = arcRect.centerY();
+        int saveCount = canvas.save();
+        canvas.rotate(startAngle, centerX, centerY);
+        canvas.translate(centerX - mKey.cellSize / 2f, centerY - mKey.cellSize / 2f);
+        canvas.drawBitmap(mBitmap, mSrcRect, mDstRect, paint);
+        canvas.restoreToCount(saveCount);
+    }
+
+    static class Key {
+        final int cellSize;
+        final float diameter;
+        final float strokeWidthInPx;
+        final Paint.Cap strokeCap;
+        final float minSweepAngle;
+        final float maxSweepAngle;
+        final long sweepDurationNanos;
+        // tables are shared per curve, so identity is enough
+        final EasingTable sweepEasing;
+        final int frameRate;
+
+        Key(float diameter, float strokeWidthInPx, Paint.Cap strokeCap, ArcSpec spec, int frameRate) {
+            this.cellSize = (int) Math.ceil(diameter + strokeWidthInPx);
+            this.diameter = diameter;
+            this.strokeWidthInPx = strokeWidthInPx;
+            this.strokeCap = strokeCap;
+            this.minSweepAngle = spec.getMinSweepAngle();
+            this.maxSweepAngle = spec.getMaxSweepAngle();
+            this.sweepDurationNanos = spec.getSweepDurationNanos();
+            this.sweepEasing = spec.getSweepEasing();
+            this.frameRate = frameRate;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return cellSize == key.cellSize
+                    && Float.compare(key.diameter, diameter) == 0
+                    && Float.compare(key.strokeWidthInPx, strokeWidthInPx) == 0
+                    && strokeCap == key.strokeCap
+                    && Float.compare(key.minSweepAngle, minSweepAngle) == 0
+                    && Float.compare(key.maxSweepAngle, maxSweepAngle) == 0
+                    && sweepDurationNanos == key.sweepDurationNanos
+                    && sweepEasing == key.sweepEasing
+                    && frameRate == key.frameRate;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = cellSize;
+            result = 31 * result + Float.floatToIntBits(diameter);
+            result = 31 * result + Float.floatToIntBits(strokeWidthInPx);
+            result = 31 * result + strokeCap.hashCode();
+            result = 31 * result + System.identityHashCode(sweepEasing);
+            result = 31 * result + Float.floatToIntBits(minSweepAngle);
+            result = 31 * result + Float.floatToIntBits(maxSweepAngle);
+            result = 31 * result + (int) (sweepDurationNanos ^ (sweepDurationNanos >>> 32));
+            result = 31 * result + frameRate;
+            return result;
+        }
+    }
+}
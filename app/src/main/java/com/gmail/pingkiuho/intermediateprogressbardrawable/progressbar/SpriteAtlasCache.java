@@ -0,0 +1,115 @@
+package com.gmail.pingkiuho.intermediateprogressbardrawable.progressbar;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.LruCache;
+
+import com.gmail.pingkiuho.intermediateprogressbardrawable.progressbar.model.ArcSpec;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Process-wide LRU cache of {@link SpriteAtlas}es for the baked mode, bounded by bitmap bytes.
+ * Identical spinners (same spec and pixel size) share one atlas regardless of their color.
+ * Missing atlases are baked on one background thread, so a first draw never waits for a whole cycle to render.
+ * <p>
+ * Must be used from the main thread.
+ */
+public final class SpriteAtlasCache {
+    public static final int DEFAULT_MAX_SIZE_BYTES = 8 * 1024 * 1024;
+
+    interface Callback {
+        /**
+         * Called on the main thread once a requested atlas is baked and cached
+         */
+        void onAtlasReady(SpriteAtlas atlas);
+    }
+
+    private static final LruCache<SpriteAtlas.Key, SpriteAtlas> sCache = new LruCache<SpriteAtlas.Key, SpriteAtlas>(DEFAULT_MAX_SIZE_BYTES) {
+        @Override
+        protected int sizeOf(SpriteAtlas.Key key, SpriteAtlas atlas) {
+            return atlas.getByteCount();
+        }
+    };
+    // callbacks waiting per atlas being baked
+    private static final HashMap<SpriteAtlas.Key, ArrayList<Callback>> sPending = new HashMap<>();
+    private static ExecutorService sExecutor;
+    private static Handler sMainHandler;
+
+    private SpriteAtlasCache() {
+    }
+
+    /**
+     * Evicted atlases are not recycled, drawables still using them keep them alive until they are re-obtained
+     */
+    public static void setMaxSizeBytes(int maxSizeBytes) {
+        sCache.resize(maxSizeBytes);
+    }
+
+    public static void clear() {
+        sCache.evictAll();
+    }
+
+    /**
+     * @return the cached atlas, or null if it is missing. A missing atlas is baked in the background and passed to
+     * the callback when ready, the callback is not called if it turns out too large to be cached.
+     */
+    static SpriteAtlas obtain(final SpriteAtlas.Key key, final ArcSpec spec, Callback callback) {
+        SpriteAtlas atlas = sCache.get(key);
+        if (atlas != null) {
+            return atlas;
+        }
+        ArrayList<Callback> callbacks = sPending.get(key);
+        if (callbacks == null) {
+            callbacks = new ArrayList<>();
+            sPending.put(key, callbacks);
+            if (sMainHandler == null) {
+                sMainHandler = new Handler(Looper.getMainLooper());
+            }
+            getExecutor().execute(new Runnable() {
+                @Override
+                public void run() {
+                    final SpriteAtlas baked = SpriteAtlas.bake(key, spec);
+                    sMainHandler.post(new Runnable() {
+                        @Override
+                        public void run() {
+                            onBaked(key, baked);
+                        }
+                    });
+                }
+            });
+        }
+        callbacks.add(callback);
+        return null;
+    }
+
+    private static void onBaked(SpriteAtlas.Key key, SpriteAtlas atlas) {
+        ArrayList<Callback> callbacks = sPending.remove(key);
+        if (atlas == null || atlas.getByteCount() > sCache.maxSize()) {
+            return;
+        }
+        sCache.put(key, atlas);
+        for (int i = 0; i < callbacks.size(); i++) {
+            callbacks.get(i).onAtlasReady(atlas);
+        }
+    }
+
+    private static ExecutorService getExecutor() {
+        if (sExecutor == null) {
+            sExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable, "SpriteAtlasBaker");
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.MIN_PRIORITY);
+                    return thread;
+                }
+            });
+        }
+        return sExecutor;
+    }
+}
@@ -0,0 +1,115 @@
+package com.gmail.pingkiuho.intermediateprogressbardrawable.progressbar.model;
+
+/**
+ * Watches the clock's frame intervals and steps the drawing quality down while frames are dropped, and back up once they recover.
+ * <p>
+ * The expected interval is the shortest one seen, i.e. the display refresh interval. A frame is janky if it took
+ * more than {@link #JANK_FACTOR} expected intervals. Quality goes down one level when a window of
+ * {@link #DOWN_WINDOW_FRAMES} frames has at least {@link #DOWN_JANKY_FRAMES} janky ones, and up one level after
+ * {@link #UP_WINDOW_FRAMES} frames with at most one janky frame. Intervals longer than {@link #MAX_INTERVAL_NANOS}
+ * are pauses rather than jank and are ignored.
+ */
+public final class AdaptiveQualityGovernor {
+    public static final int QUALITY_FULL = 0;
+    /**
+     * Gradient drawn as a solid color
+     */
+    public static final int QUALITY_SOLID_COLOR = 1;
+    /**
+     * Solid color, without anti-aliasing
+     */
+    public static final int QUALITY_NO_ANTI_ALIAS = 2;
+    /**
+     * Solid color, without anti-aliasing, at half the frame rate
+     */
+    public static final int QUALITY_HALF_FRAME_RATE = 3;
+
+    static final float JANK_FACTOR = 1.5f;
+    static final int DOWN_WINDOW_FRAMES = 30;
+    static final int DOWN_JANKY_FRAMES = 4;
+    static final int UP_WINDOW_FRAMES = 180;
+    static final long MAX_INTERVAL_NANOS = 250000000L;
+    private static final long DEFAULT_FRAME_INTERVAL_NANOS = 16666667L;
+
+    private int mLevel = QUALITY_FULL;
+    private long mLastFrameNanos = -1;
+    private long mExpectedIntervalNanos = Long.MAX_VALUE;
+    private int mDownFrames;
+    private int mDownJankyFrames;
+    private int mUpFrames;
+    private int mUpJankyFrames;
+
+    public int getLevel() {
+        return mLevel;
+    }
+
+    /**
+     * @return the display refresh interval as observed so far
+     */
+    public long getExpectedFrameIntervalNanos() {
+        return mExpectedIntervalNanos == Long.MAX_VALUE ? DEFAULT_FRAME_INTERVAL_NANOS : mExpectedIntervalNanos;
+    }
+
+    /**
+     * Forget the last frame, e.g. when the clock restarts. The level is kept.
+     */
+    public void reset() {
+        mLastFrameNanos = -1;
+        resetWindows();
+    }
+
+    private void resetWindows() {
+        mDownFrames = 0;
+        mDownJankyFrames = 0;
+        mUpFrames = 0;
+        mUpJankyFrames = 0;
+    }
+
+    /**
+     * @param frameNanos frame time, only differences between calls are used
+     * @return true if the level changed
+     */
+    public boolean onFrame(long frameNanos) {
+        long lastFrameNanos = mLastFrameNanos;
+        mLastFrameNanos = frameNanos;
+        if (lastFrameNanos < 0) {
+            return false;
+        }
+        long intervalNanos = frameNanos - lastFrameNanos;
+        if (intervalNanos <= 0 || intervalNanos > MAX_INTERVAL_NANOS) {
+            return false;
+        }
+        if (intervalNanos < mExpectedIntervalNanos) {
+            mExpectedIntervalNanos = intervalNanos;
+        }
+        boolean janky = intervalNanos > getExpectedFrameIntervalNanos() * JANK_FACTOR;
+        mDownFrames++;
+        mUpFrames++;
+        if (janky) {
+            mDownJankyFrames++;
+            mUpJankyFrames++;
+        }
+
+        if (mDownJankyFrames >= DOWN_JANKY_FRAMES) {
+            resetWindows();
+            if (mLevel < QUALITY_HALF_FRAME_RATE) {
+                mLevel++;
+                return true;
+            }
+            return false;
+        }
+        if (mDownFrames >= DOWN_WINDOW_FRAMES) {
+            mDownFrames = 0;
+            mDownJankyFrames = 0;
+        }
+        if (mUpFrames >= UP_WINDOW_FRAMES) {
+            boolean recovered = mUpJankyFrames <= 1;
+            resetWindows();
+            if (recovered && mLevel > QUALITY_FULL) {
+                mLevel--;
+                return true;
+            }
+        }
+        return false;
+    }
+}
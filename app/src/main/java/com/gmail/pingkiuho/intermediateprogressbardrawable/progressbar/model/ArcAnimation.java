@@ -0,0 +1,234 @@
+package com.gmail.pingkiuho.intermediateprogressbardrawable.progressbar.model;
+
+/**
+ * The per-frame state of a drawable's arc: the stroke adjusted spec, the drawn and the next frame, progressive stop,
+ * determinate progress smoothing and the invalidation filter.
+ * <p>
+ * The drawable feeds it clock ticks and bounds changes and draws {@link #getFrame()}, so the whole frame step runs on
+ * the host JVM as well. Not thread-safe, used from the clock's thread only.
+ */
+public final class ArcAnimation {
+    /**
+     * The frame was computed, but is not worth drawing
+     */
+    public static final int TICK_SKIPPED = 0;
+    /**
+     * {@link #getFrame()} changed and should be drawn
+     */
+    public static final int TICK_DRAW = 1;
+    /**
+     * The determinate progress reached its target, {@link #getFrame()} should be drawn and the clock can pause
+     */
+    public static final int TICK_SETTLED = 2;
+    /**
+     * The progressive stop finished, {@link #getFrame()} is empty
+     */
+    public static final int TICK_ENDED = 3;
+
+    private ArcSpec mSpec;
+    // mSpec with the sweep angles adjusted for the stroke of the current size
+    private ArcSpec mArcSpec;
+    private final ArcFrame mFrame = new ArcFrame();
+    private final ArcFrame mNextFrame = new ArcFrame();
+    private final InvalidationFilter mInvalidationFilter = new InvalidationFilter();
+    private final ProgressSmoother mProgressSmoother = new ProgressSmoother();
+    // how far ahead the animation is, added to every time the frame is computed at
+    private long mPhaseNanos;
+    private long mElapsedNanos;
+    private long mLastTickNanos;
+    private long mEndStartedNanos = ArcFrameModel.NOT_ENDING;
+    private boolean mEnding;
+    private boolean mDeterminate;
+
+    /**
+     * Set the spec before the first use, it is unadjusted until the next {@link #setGeometry}. The frame is the one
+     * of the first tick.
+     */
+    public void setSpec(ArcSpec spec) {
+        mSpec = spec;
+        mArcSpec = spec;
+        ArcFrameModel.compute(mArcSpec, mPhaseNanos, ArcFrameModel.NOT_ENDING, mFrame);
+    }
+
+    /**
+     * @param phaseNanos how far ahead this animation is, e.g. to keep the rings of one clock from moving in lockstep
+     */
+    public void setPhaseNanos(long phaseNanos) {
+        mPhaseNanos = phaseNanos;
+        onGeometryChanged();
+    }
+
+    /**
+     * @see InvalidationFilter#setTargetFrameRate(int)
+     */
+    public void setTargetFrameRate(int frameRate) {
+        mInvalidationFilter.setTargetFrameRate(frameRate);
+    }
+
+    /**
+     * @see InvalidationFilter#setMinMovePixels(float)
+     */
+    public void setMinMovePixels(float pixels) {
+        mInvalidationFilter.setMinMovePixels(pixels);
+    }
+
+    /**
+     * Adjust the sweep angles of the spec for the stroke at a new size, through {@link StrokeGeometryCache}
+     *
+     * @param diameter diameter of the arc, measured at the center of the stroke
+     */
+    public void setGeometry(float minSweepAngle, float maxSweepAngle, float strokeWidthInPx, float diameter,
+                            boolean buttCap, boolean gradient) {
+        mArcSpec = StrokeGeometryCache.obtain(mSpec, minSweepAngle, maxSweepAngle, strokeWidthInPx, diameter, buttCap,
+                gradient);
+        onGeometryChanged();
+    }
+
+    /**
+     * Use the sweep angles of the spec as they are, e.g. on a linear track where the stroke cap needs no adjustment
+     */
+    public void resetGeometry() {
+        mArcSpec = mSpec;
+        onGeometryChanged();
+    }
+
+    public ArcSpec getArcSpec() {
+        return mArcSpec;
+    }
+
+    /**
+     * @return the frame to draw
+     */
+    public ArcFrame getFrame() {
+        return mFrame;
+    }
+
+    public long getElapsedNanos() {
+        return mElapsedNanos;
+    }
+
+    /**
+     * @return the sweep cycle of the elapsed time, always 0 without a sweep duration
+     */
+    public long getCycle() {
+        long sweepDurationNanos = mArcSpec.getSweepDurationNanos();
+        return sweepDurationNanos > 0 ? mElapsedNanos / (sweepDurationNanos * 2) : 0;
+    }
+
+    public void setDeterminate(boolean determinate) {
+        mDeterminate = determinate;
+        mInvalidationFilter.reset();
+        computeFrameAt(mElapsedNanos + mPhaseNanos, mFrame);
+    }
+
+    public boolean isDeterminate() {
+        return mDeterminate;
+    }
+
+    /**
+     * @return the displayed determinate progress
+     */
+    public float getProgress() {
+        return mProgressSmoother.getValue();
+    }
+
+    /**
+     * Start the progressive stop, it begins at the next tick
+     */
+    public void startEnding() {
+        mEnding = true;
+        mEndStartedNanos = ArcFrameModel.NOT_ENDING;
+    }
+
+    public boolean isEnding() {
+        return mEnding;
+    }
+
+    /**
+     * Back to the first frame, not ending, with the progress at 0
+     */
+    public void reset() {
+        mEnding = false;
+        mEndStartedNanos = ArcFrameModel.NOT_ENDING;
+        mElapsedNanos = 0;
+        mLastTickNanos = 0;
+        mProgressSmoother.snapTo(0f);
+        computeFrameAt(mPhaseNanos, mFrame);
+        mInvalidationFilter.reset();
+    }
+
+    /**
+     * Compute the frame of a clock tick
+     *
+     * @param elapsedNanos      animation time of the tick
+     * @param frameElapsedNanos animation time to compute the frame at, e.g. snapped to a baked frame
+     * @param realElapsedNanos  running time of the tick without the animator duration scale, for the frame rate limit
+     * @param targetProgress    determinate progress to move the displayed progress toward
+     * @param motionRadius      pixels moved per radian of the frame angles
+     * @return one of the TICK_ results
+     */
+    public int tick(long elapsedNanos, long frameElapsedNanos, long realElapsedNanos, float targetProgress,
+                    float motionRadius) {
+        mElapsedNanos = elapsedNanos;
+        if (mEnding && mEndStartedNanos == ArcFrameModel.NOT_ENDING) {
+            mEndStartedNanos = elapsedNanos;
+        }
+        boolean progressSettled = false;
+        if (mDeterminate) {
+            progressSettled = mProgressSmoother.step(targetProgress, elapsedNanos - mLastTickNanos) == targetProgress;
+        }
+        mLastTickNanos = elapsedNanos;
+        computeFrameAt(frameElapsedNanos + mPhaseNanos, mNextFrame);
+
+        if (mEnding && mNextFrame.endRatio <= 0f) {
+            mFrame.set(mNextFrame);
+            return TICK_ENDED;
+        }
+        if (progressSettled && !mEnding) {
+            // always draw the settled frame, the clock pauses until the next progress update
+            mFrame.set(mNextFrame);
+            mInvalidationFilter.reset();
+            return TICK_SETTLED;
+        }
+        if (!mInvalidationFilter.shouldDraw(realElapsedNanos, mNextFrame, motionRadius)) {
+            return TICK_SKIPPED;
+        }
+        mFrame.set(mNextFrame);
+        return TICK_DRAW;
+    }
+
+    /**
+     * Show one frame instead of animating: the full arc, or the target progress without smoothing
+     */
+    public void showStaticFrame(float targetProgress) {
+        long elapsedNanos = mElapsedNanos + mPhaseNanos;
+        if (mDeterminate) {
+            mProgressSmoother.snapTo(targetProgress);
+        } else {
+            // without the phase, the full arc whatever the phase
+            elapsedNanos = Math.max(mElapsedNanos, mArcSpec.getSweepDurationNanos());
+        }
+        computeFrameAt(elapsedNanos, mFrame);
+        mInvalidationFilter.reset();
+    }
+
+    private void onGeometryChanged() {
+        computeFrameAt(mElapsedNanos + mPhaseNanos, mFrame);
+        mInvalidationFilter.reset();
+    }
+
+    /**
+     * @param elapsedNanos including the phase
+     */
+    private void computeFrameAt(long elapsedNanos, ArcFrame out) {
+        long endStartedNanos = mEnding ? mEndStartedNanos : ArcFrameModel.NOT_ENDING;
+        if (endStartedNanos != ArcFrameModel.NOT_ENDING) {
+            endStartedNanos += mPhaseNanos;
+        }
+        if (mDeterminate) {
+            ArcFrameModel.computeDeterminate(mArcSpec, mProgressSmoother.getValue(), elapsedNanos, endStartedNanos, out);
+        } else {
+            ArcFrameModel.compute(mArcSpec, elapsedNanos, endStartedNanos, out);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.gmail.pingkiuho.intermediateprogressbardrawable.progressbar.model;
+
+/**
+ * Output of {@link ArcFrameModel}, reused across frames so computing a frame does not allocate.
+ */
+public final class ArcFrame {
+    /**
+     * Start angle in degrees, as passed to {@code Canvas.drawArc()}
+     */
+    public float startAngle;
+    /**
+     * Sweep angle in degrees, as passed to {@code Canvas.drawArc()}
+     */
+    public float sweepAngle;
+    /**
+     * 1 while running, decreasing to 0 when progressively stopping
+     */
+    public float endRatio = 1f;
+
+    public void set(ArcFrame frame) {
+        startAngle = frame.startAngle;
+        sweepAngle = frame.sweepAngle;
+        endRatio = frame.endRatio;
+    }
+
+    @Override
+    public String toString() {
+        return "ArcFrame(" + startAngle + ", " + sweepAngle + ", " + endRatio + ")";
+    }
+}
@@ -0,0 +1,97 @@
+package com.gmail.pingkiuho.intermediateprogressbardrawable.progressbar.model;
+
+/**
+ * Side-effect-free frame function of the arc animation, maps (spec, elapsed time) to the arc to draw.
+ * <p>
+ * A sweep cycle is an appearing sweep (the head moves from min to max sweep) followed by a disappearing sweep
+ * (the tail moves from max to min sweep), each lasting one sweep duration. Every cycle moves the arc backward by
+ * {@code 360 - max + min} degrees on top of the rotation, so the tail always continues from where it stopped.
+ * The very first appearing sweep grows from 0 instead of min.
+ * <p>
+ * Progressive stop shrinks the arc toward its head linearly over one sweep duration, in determinate mode too.
+ */
+public final class ArcFrameModel {
+    public static final long NOT_ENDING = -1;
+
+    private ArcFrameModel() {
+    }
+
+    /**
+     * @param elapsedNanos    time since the animation started
+     * @param endStartedNanos elapsed time when progressive stop started, or {@link #NOT_ENDING}
+     * @param out             receives the frame
+     */
+    public static void compute(ArcSpec spec, long elapsedNanos, long endStartedNanos, ArcFrame out) {
+        float maxSweepAngle = spec.getMaxSweepAngle();
+        float minSweepAngle = spec.getMinSweepAngle();
+        long rotationDurationNanos = spec.getRotationDurationNanos();
+        long sweepDurationNanos = spec.getSweepDurationNanos();
+
+        float rotation = spec.getStartAtDegree();
+        if (spec.isRotation() && rotationDurationNanos > 0) {
+            rotation += (elapsedNanos % rotationDurationNanos) / (float) rotationDurationNanos * 360f;
+        }
+
+        float startAngle;
+        float sweepAngle;
+        if (spec.isSweep() && sweepDurationNanos > 0) {
+            long cycle = elapsedNanos / (sweepDurationNanos * 2);
+            long elapsedInCycle = elapsedNanos % (sweepDurationNanos * 2);
+            float rotationOffset = (float) ((cycle * (double) (360f - maxSweepAngle + minSweepAngle)) % 360);
+
+            if (elapsedInCycle < sweepDurationNanos) {
+                float fraction = spec.getSweepEasing().getInterpolation(elapsedInCycle / (float) sweepDurationNanos);
+                if (cycle == 0) {
+                    sweepAngle = fraction * maxSweepAngle;
+                } else {
+                    sweepAngle = minSweepAngle + fraction * (maxSweepAngle - minSweepAngle);
+                }
+                startAngle = rotation - rotationOffset;
+            } else {
+                float fraction = spec.getSweepEasing().getInterpolation((elapsedInCycle - sweepDurationNanos) / (float) sweepDurationNanos);
+                sweepAngle = maxSweepAngle - fraction * (maxSweepAngle - minSweepAngle);
+                rotationOffset += 360f - maxSweepAngle;
+                // sweep is disappearing, reverse the sweep direction
+                startAngle = rotation - rotationOffset + (360f - sweepAngle);
+            }
+            startAngle %= 360;
+        } else {
+            startAngle = rotation;
+            sweepAngle = maxSweepAngle;
+        }
+
+        applyEnd(spec, elapsedNanos, endStartedNanos, startAngle, sweepAngle, out);
+    }
+
+    /**
+     * Determinate frame, the arc grows clockwise from the start degree, without rotation or sweep animation
+     *
+     * @param progress        in [0, 1], clamped
+     * @param elapsedNanos    time since the animation started, only used by progressive stop
+     * @param endStartedNanos elapsed time when progressive stop started, or {@link #NOT_ENDING}
+     * @param out             receives the frame
+     */
+    public static void computeDeterminate(ArcSpec spec, float progress, long elapsedNanos, long endStartedNanos, ArcFrame out) {
+        float sweepAngle = Math.max(0f, Math.min(progress, 1f)) * 360f;
+        applyEnd(spec, elapsedNanos, endStartedNanos, spec.getStartAtDegree() % 360, sweepAngle, out);
+    }
+
+    private static void applyEnd(ArcSpec spec, long elapsedNanos, long endStartedNanos, float startAngle, float sweepAngle, ArcFrame out) {
+        long sweepDurationNanos = spec.getSweepDurationNanos();
+        float endRatio = 1f;
+        if (endStartedNanos != NOT_ENDING) {
+            if (sweepDurationNanos > 0) {
+                endRatio = Math.max(0f, 1f - (elapsedNanos - endStartedNanos) / (float) sweepDurationNanos);
+            } else {
+                endRatio = 0f;
+            }
+            float newSweepAngle = sweepAngle * endRatio;
+            startAngle = (startAngle + (sweepAngle - newSweepAngle)) % 360;
+            sweepAngle = newSweepAngle;
+        }
+
+        out.startAngle = startAngle;
+        out.sweepAngle = sweepAngle;
+        out.endRatio = endRatio;
+    }
+}
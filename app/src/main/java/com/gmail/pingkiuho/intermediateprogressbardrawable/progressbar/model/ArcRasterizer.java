@@ -0,0 +1,259 @@
+package com.gmail.pingkiuho.intermediateprogressbardrawable.progressbar.model;
+
+/**
+ * Software rasterizer for the arc of IntermediateProgressBarDrawable, so frames can be rendered on a plain JVM.
+ * <p>
+ * Follows {@code Canvas.drawArc(oval, startAngle, sweepAngle, false, paint)} with a stroke paint: angles in degrees,
+ * clockwise from 3 o'clock, the stroke centered on a circle, caps as {@code Paint.Cap}. Gradient mode follows the
+ * {@code SweepGradient} built by the drawable, with the same {@link GradientStops}. Edges are anti-aliased by
+ * {@link #SUBSAMPLES}x{@link #SUBSAMPLES} supersampling, so the output matches the device up to anti-aliasing.
+ * <p>
+ * Pixels are non-premultiplied ARGB, row by row, as in {@code BufferedImage.TYPE_INT_ARGB}.
+ */
+public final class ArcRasterizer {
+    public static final int CAP_BUTT = 0;
+    public static final int CAP_ROUND = 1;
+    public static final int CAP_SQUARE = 2;
+
+    static final int SUBSAMPLES = 4;
+
+    private final int mWidth;
+    private final int mHeight;
+    private final int[] mPixels;
+
+    private float mHalfStrokeWidth;
+    private int mCap = CAP_ROUND;
+    private int mColor = 0xFF000000;
+    private int[] mShaderColors;
+    private float[] mPositions;
+
+    public ArcRasterizer(int width, int height) {
+        mWidth = width;
+        mHeight = height;
+        mPixels = new int[width * height];
+    }
+
+    public int getWidth() {
+        return mWidth;
+    }
+
+    public int getHeight() {
+        return mHeight;
+    }
+
+    /**
+     * @return the pixel buffer, reused by every draw
+     */
+    public int[] getPixels() {
+        return mPixels;
+    }
+
+    public void setStroke(float strokeWidthInPx, int cap) {
+        mHalfStrokeWidth = strokeWidthInPx / 2;
+        mCap = cap;
+    }
+
+    public void setColor(int color) {
+        mColor = color;
+        mShaderColors = null;
+    }
+
+    /**
+     * @param colors in drawing order, the last color is at the arc head
+     */
+    public void setGradient(int[] colors) {
+        // first and last colors duplicated for the pinned 0 and 1 positions, as in the drawable
+        mShaderColors = new int[colors.length + 2];
+        mShaderColors[0] = colors[0];
+        mShaderColors[mShaderColors.length - 1] = colors[colors.length - 1];
+        System.arraycopy(colors, 0, mShaderColors, 1, colors.length);
+        mPositions = new float[mShaderColors.length];
+    }
+
+    public void clear(int color) {
+        for (int i = 0; i < mPixels.length; i++) {
+            mPixels[i] = color;
+        }
+    }
+
+    /**
+     * @param centerX center of the circle
+     * @param centerY center of the circle
+     * @param radius  radius at the center of the stroke, i.e. half the width of the drawable's arc rect
+     */
+    public void drawArc(float centerX, float centerY, float radius, float startAngle, float sweepAngle) {
+        if (sweepAngle <= 0f) {
+            return;
+        }
+        float sweep = Math.min(sweepAngle, 360f);
+        float gradientRotation = 0f;
+        if (mShaderColors != null) {
+            GradientStops.computePositions(sweep, mShaderColors.length - 2, mPositions);
+            gradientRotation = GradientStops.rotation(startAngle, sweep, sweep);
+        }
+
+        double startRadians = Math.toRadians(startAngle);
+        double endRadians = Math.toRadians(startAngle + sweep);
+        float startX = centerX + radius * (float) Math.cos(startRadians);
+        float startY = centerY + radius * (float) Math.sin(startRadians);
+        float endX = centerX + radius * (float) Math.cos(endRadians);
+        float endY = centerY + radius * (float) Math.sin(endRadians);
+
+        float extent = radius + mHalfStrokeWidth * 1.5f;
+        int left = Math.max(0, (int) Math.floor(centerX - extent));
+        int top = Math.max(0, (int) Math.floor(centerY - extent));
+        int right = Math.min(mWidth, (int) Math.ceil(centerX + extent));
+        int bottom = Math.min(mHeight, (int) Math.ceil(centerY + extent));
+
+        float sampleStep = 1f / SUBSAMPLES;
+        int sampleCount = SUBSAMPLES * SUBSAMPLES;
+        for (int y = top; y < bottom; y++) {
+            for (int x = left; x < right; x++) {
+                if (isOutside(x + 0.5f, y + 0.5f, centerX, centerY, radius, startX, startY, endX, endY)) {
+                    continue;
+                }
+                int covered = 0;
+                for (int sy = 0; sy < SUBSAMPLES; sy++) {
+                    float py = y + (sy + 0.5f) * sampleStep;
+                    for (int sx = 0; sx < SUBSAMPLES; sx++) {
+                        float px = x + (sx + 0.5f) * sampleStep;
+                        if (isInside(px, py, centerX, centerY, radius, startAngle, sweep,
+                                startX, startY, (float) startRadians, endX, endY, (float) endRadians)) {
+                            covered++;
+                        }
+                    }
+                }
+                if (covered == 0) {
+                    continue;
+                }
+
+                int color = mColor;
+                if (mShaderColors != null) {
+                    color = sweepGradientColor(angleOf(x + 0.5f - centerX, y + 0.5f - centerY) - gradientRotation);
+                }
+                int index = y * mWidth + x;
+                mPixels[index] = blend(color, covered / (float) sampleCount, mPixels[index]);
+            }
+        }
+    }
+
+    /**
+     * Conservative test on the pixel center, true only if no sample of the pixel can be inside
+     */
+    private boolean isOutside(float px, float py, float centerX, float centerY, float radius,
+                              float startX, float startY, float endX, float endY) {
+        // half the pixel diagonal
+        float margin = 0.71f;
+        float dx = px - centerX;
+        float dy = py - centerY;
+        float distance = (float) Math.sqrt(dx * dx + dy * dy);
+        if (Math.abs(distance - radius) <= mHalfStrokeWidth + margin) {
+            return false;
+        }
+        if (mCap == CAP_BUTT) {
+            return true;
+        }
+        // a square cap reaches its corners at sqrt(2) half stroke widths from the end point
+        float capReach = mHalfStrokeWidth * 1.42f + margin;
+        return distanceSquared(px, py, startX, startY) > capReach * capReach
+                && distanceSquared(px, py, endX, endY) > capReach * capReach;
+    }
+
+    private boolean isInside(float px, float py, float centerX, float centerY, float radius, float startAngle, float sweep,
+                             float startX, float startY, float startRadians, float endX, float endY, float endRadians) {
+        float dx = px - centerX;
+        float dy = py - centerY;
+        float distance = (float) Math.sqrt(dx * dx + dy * dy);
+        if (Math.abs(distance - radius) <= mHalfStrokeWidth) {
+            if (sweep >= 360f) {
+                return true;
+            }
+            float offset = angleOf(dx, dy) - startAngle;
+            offset %= 360f;
+            if (offset < 0f) {
+                offset += 360f;
+            }
+            if (offset <= sweep) {
+                return true;
+            }
+        }
+
+        switch (mCap) {
+            case CAP_ROUND:
+                return distanceSquared(px, py, startX, startY) <= mHalfStrokeWidth * mHalfStrokeWidth
+                        || distanceSquared(px, py, endX, endY) <= mHalfStrokeWidth * mHalfStrokeWidth;
+            case CAP_SQUARE:
+                // extends half the stroke width past each end, backwards from the start and forwards from the end
+                return isInsideSquareCap(px - startX, py - startY, startRadians, -1f)
+                        || isInsideSquareCap(px - endX, py - endY, endRadians, 1f);
+            default:
+                return false;
+        }
+    }
+
+    private boolean isInsideSquareCap(float dx, float dy, float radians, float direction) {
+        float cos = (float) Math.cos(radians);
+        float sin = (float) Math.sin(radians);
+        // clockwise tangent is (-sin, cos) with y down
+        float along = (dx * -sin + dy * cos) * direction;
+        float across = dx * cos + dy * sin;
+        return along >= 0f && along <= mHalfStrokeWidth && Math.abs(across) <= mHalfStrokeWidth;
+    }
+
+    private int sweepGradientColor(float angle) {
+        float fraction = angle % 360f;
+        if (fraction < 0f) {
+            fraction += 360f;
+        }
+        fraction /= 360f;
+
+        for (int i = 0; i < mPositions.length - 1; i++) {
+            if (fraction <= mPositions[i + 1]) {
+                float span = mPositions[i + 1] - mPositions[i];
+                float t = span > 0f ? (fraction - mPositions[i]) / span : 0f;
+                return lerpColor(mShaderColors[i], mShaderColors[i + 1], t);
+            }
+        }
+        return mShaderColors[mShaderColors.length - 1];
+    }
+
+    /**
+     * @return angle in [0, 360) degrees, clockwise from 3 o'clock
+     */
+    private static float angleOf(float dx, float dy) {
+        float angle = (float) Math.toDegrees(Math.atan2(dy, dx));
+        return angle < 0f ? angle + 360f : angle;
+    }
+
+    private static float distanceSquared(float x1, float y1, float x2, float y2) {
+        return (x1 - x2) * (x1 - x2) + (y1 - y2) * (y1 - y2);
+    }
+
+    private static int lerpColor(int from, int to, float t) {
+        int a = Math.round(((from >>> 24) & 0xFF) + (((to >>> 24) & 0xFF) - ((from >>> 24) & 0xFF)) * t);
+        int r = Math.round(((from >> 16) & 0xFF) + (((to >> 16) & 0xFF) - ((from >> 16) & 0xFF)) * t);
+        int g = Math.round(((from >> 8) & 0xFF) + (((to >> 8) & 0xFF) - ((from >> 8) & 0xFF)) * t);
+        int b = Math.round((from & 0xFF) + ((to & 0xFF) - (from & 0xFF)) * t);
+        return (a << 24) | (r << 16) | (g << 8) | b;
+    }
+
+    /**
+     * Source-over of {@code color} with {@code coverage} on {@code dst}, both non-premultiplied
+     */
+    private static int blend(int color, float coverage, int dst) {
+        float srcA = ((color >>> 24) & 0xFF) / 255f * coverage;
+        float dstA = ((dst >>> 24) & 0xFF) / 255f;
+        float outA = srcA + dstA * (1f - srcA);
+        if (outA <= 0f) {
+            return 0;
+        }
+        int r = blendChannel((color >> 16) & 0xFF, srcA, (dst >> 16) & 0xFF, dstA, outA);
+        int g = blendChannel((color >> 8) & 0xFF, srcA, (dst >> 8) & 0xFF, dstA, outA);
+        int b = blendChannel(color & 0xFF, srcA, dst & 0xFF, dstA, outA);
+        return (Math.round(outA * 255f) << 24) | (r << 16) | (g << 8) | b;
+    }
+
+    private static int blendChannel(int src, float srcA, int dst, float dstA, float outA) {
+        return Math.min(255, Math.round((src * srcA + dst * dstA * (1f - srcA)) / outA));
+    }
+}
@@ -0,0 +1,176 @@
+package com.gmail.pingkiuho.intermediateprogressbardrawable.progressbar.model;
+
+/**
+ * Immutable description of the arc animation, all angles in degrees and durations in nanoseconds.
+ * Durations are the effective ones, i.e. already divided by the speed.
+ */
+public final class ArcSpec {
+    private final boolean mSweep;
+    private final boolean mRotation;
+    private final long mRotationDurationNanos;
+    private final long mSweepDurationNanos;
+    private final float mStartAtDegree;
+    private final float mMinSweepAngle;
+    private final float mMaxSweepAngle;
+    private final EasingTable mSweepEasing;
+
+    private ArcSpec(boolean sweep,
+                    boolean rotation,
+                    long rotationDurationNanos,
+                    long sweepDurationNanos,
+                    float startAtDegree,
+                    float minSweepAngle,
+                    float maxSweepAngle,
+                    EasingTable sweepEasing) {
+        mSweep = sweep;
+        mRotation = rotation;
+        mRotationDurationNanos = rotationDurationNanos;
+        mSweepDurationNanos = sweepDurationNanos;
+        mStartAtDegree = startAtDegree;
+        mMinSweepAngle = minSweepAngle;
+        mMaxSweepAngle = maxSweepAngle;
+        mSweepEasing = sweepEasing;
+    }
+
+    public boolean isSweep() {
+        return mSweep;
+    }
+
+    public boolean isRotation() {
+        return mRotation;
+    }
+
+    public long getRotationDurationNanos() {
+        return mRotationDurationNanos;
+    }
+
+    public long getSweepDurationNanos() {
+        return mSweepDurationNanos;
+    }
+
+    public float getStartAtDegree() {
+        return mStartAtDegree;
+    }
+
+    public float getMinSweepAngle() {
+        return mMinSweepAngle;
+    }
+
+    public float getMaxSweepAngle() {
+        return mMaxSweepAngle;
+    }
+
+    /**
+     * @return the sweep curve, a shared table so evaluating it costs one array read per frame
+     */
+    public EasingTable getSweepEasing() {
+        return mSweepEasing;
+    }
+
+    /**
+     * @return a copy with different min/max sweep angles, e.g. after adjusting them for the stroke cap
+     */
+    public ArcSpec withSweepAngles(float minSweepAngle, float maxSweepAngle) {
+        if (minSweepAngle == mMinSweepAngle && maxSweepAngle == mMaxSweepAngle) {
+            return this;
+        }
+        return new ArcSpec(mSweep, mRotation, mRotationDurationNanos, mSweepDurationNanos, mStartAtDegree,
+                minSweepAngle, maxSweepAngle, mSweepEasing);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ArcSpec)) {
+            return false;
+        }
+        ArcSpec other = (ArcSpec) o;
+        // easing tables are shared per curve, so identity is enough
+        return mSweep == other.mSweep
+                && mRotation == other.mRotation
+                && mRotationDurationNanos == other.mRotationDurationNanos
+                && mSweepDurationNanos == other.mSweepDurationNanos
+                && Float.compare(mStartAtDegree, other.mStartAtDegree) == 0
+                && Float.compare(mMinSweepAngle, other.mMinSweepAngle) == 0
+                && Float.compare(mMaxSweepAngle, other.mMaxSweepAngle) == 0
+                && mSweepEasing == other.mSweepEasing;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = mSweep ? 1 : 0;
+        result = 31 * result + (mRotation ? 1 : 0);
+        result = 31 * result + (int) (mRotationDurationNanos ^ (mRotationDurationNanos >>> 32));
+        result = 31 * result + (int) (mSweepDurationNanos ^ (mSweepDurationNanos >>> 32));
+        result = 31 * result + Float.floatToIntBits(mStartAtDegree);
+        result = 31 * result + Float.floatToIntBits(mMinSweepAngle);
+        result = 31 * result + Float.floatToIntBits(mMaxSweepAngle);
+        result = 31 * result + System.identityHashCode(mSweepEasing);
+        return result;
+    }
+
+    public static class Builder {
+        private boolean sweep = true;
+        private boolean rotation = true;
+        private long rotationDurationNanos = 3000000000L;
+        private long sweepDurationNanos = 1200000000L;
+        private float startAtDegree = 0f;
+        private float minSweepAngle = 25f;
+        private float maxSweepAngle = 335f;
+        private EasingTable sweepEasing = EasingTable.FAST_OUT_SLOW_IN;
+
+        public Builder sweep(boolean enable) {
+            sweep = enable;
+            return this;
+        }
+
+        public Builder rotation(boolean enable) {
+            rotation = enable;
+            return this;
+        }
+
+        public Builder rotationDurationNanos(long nanos) {
+            rotationDurationNanos = nanos;
+            return this;
+        }
+
+        public Builder sweepDurationNanos(long nanos) {
+            sweepDurationNanos = nanos;
+            return this;
+        }
+
+        public Builder startAtDegree(float degree) {
+            startAtDegree = degree;
+            return this;
+        }
+
+        public Builder minSweepAngle(float angle) {
+            minSweepAngle = angle;
+            return this;
+        }
+
+        public Builder maxSweepAngle(float angle) {
+            maxSweepAngle = angle;
+            return this;
+        }
+
+        public Builder sweepEasing(CubicBezierEasing easing) {
+            sweepEasing = EasingTable.of(easing);
+            return this;
+        }
+
+        public ArcSpec build() {
+            return new ArcSpec(
+                    sweep,
+                    rotation,
+                    rotationDurationNanos,
+                    sweepDurationNanos,
+                    startAtDegree,
+                    minSweepAngle,
+                    maxSweepAngle,
+                    sweepEasing);
+        }
+    }
+}
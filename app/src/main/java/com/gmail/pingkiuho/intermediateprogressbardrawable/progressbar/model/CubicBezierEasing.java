@@ -0,0 +1,109 @@
+package com.gmail.pingkiuho.intermediateprogressbardrawable.progressbar.model;
+
+/**
+ * Pure-Java cubic-bezier easing curve from (0, 0) to (1, 1), same as a PathInterpolator built with
+ * {@code cubicTo(x1, y1, x2, y2, 1, 1)}.
+ */
+public final class CubicBezierEasing {
+    /**
+     * Same curve as {@code FastOutSlowInInterpolator}
+     */
+    public static final CubicBezierEasing FAST_OUT_SLOW_IN = new CubicBezierEasing(0.4f, 0f, 0.2f, 1f);
+
+    private static final int NEWTON_ITERATIONS = 8;
+    private static final int BISECTION_ITERATIONS = 32;
+    private static final float EPSILON = 1e-6f;
+
+    private final float mX1;
+    private final float mY1;
+    private final float mX2;
+    private final float mY2;
+
+    public CubicBezierEasing(float x1, float y1, float x2, float y2) {
+        if (x1 < 0f || x1 > 1f || x2 < 0f || x2 > 1f) {
+            throw new IllegalArgumentException("Control point x must be in [0, 1]");
+        }
+        mX1 = x1;
+        mY1 = y1;
+        mX2 = x2;
+        mY2 = y2;
+    }
+
+    public float getInterpolation(float input) {
+        if (input <= 0f) {
+            return 0f;
+        } else if (input >= 1f) {
+            return 1f;
+        }
+        return bezier(solveT(input), mY1, mY2);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof CubicBezierEasing)) {
+            return false;
+        }
+        CubicBezierEasing other = (CubicBezierEasing) o;
+        return Float.compare(mX1, other.mX1) == 0
+                && Float.compare(mY1, other.mY1) == 0
+                && Float.compare(mX2, other.mX2) == 0
+                && Float.compare(mY2, other.mY2) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = Float.floatToIntBits(mX1);
+        result = 31 * result + Float.floatToIntBits(mY1);
+        result = 31 * result + Float.floatToIntBits(mX2);
+        result = 31 * result + Float.floatToIntBits(mY2);
+        return result;
+    }
+
+    /**
+     * Find the curve parameter t for x, Newton-Raphson first and bisection if it does not converge
+     */
+    private float solveT(float x) {
+        float t = x;
+        for (int i = 0; i < NEWTON_ITERATIONS; i++) {
+            float error = bezier(t, mX1, mX2) - x;
+            if (Math.abs(error) < EPSILON) {
+                return t;
+            }
+            float slope = bezierSlope(t, mX1, mX2);
+            if (Math.abs(slope) < EPSILON) {
+                break;
+            }
+            t -= error / slope;
+        }
+
+        float low = 0f;
+        float high = 1f;
+        t = x;
+        for (int i = 0; i < BISECTION_ITERATIONS; i++) {
+            float value = bezier(t, mX1, mX2);
+            if (Math.abs(value - x) < EPSILON) {
+                break;
+            }
+            if (value < x) {
+                low = t;
+            } else {
+                high = t;
+            }
+            t = (low + high) / 2;
+        }
+        return t;
+    }
+
+    private static float bezier(float t, float p1, float p2) {
+        float u = 1f - t;
+        return 3 * u * u * t * p1 + 3 * u * t * t * p2 + t * t * t;
+    }
+
+    private static float bezierSlope(float t, float p1, float p2) {
+        float u = 1f - t;
+        return 3 * u * u * p1 + 6 * u * t * (p2 - p1) + 3 * t * t * (1f - p2);
+    }
+}
@@ -0,0 +1,87 @@
+package com.gmail.pingkiuho.intermediateprogressbardrawable.progressbar.model;
+
+/**
+ * Level-of-detail profile of the circular mode, picked from the drawn size. Small spinners cannot show many
+ * gradient stops, anti-aliasing or every display frame, and a short arc at their size reads as a dot.
+ */
+public final class DetailProfile {
+    public static final DetailProfile FULL = new DetailProfile(0, true, 0, 0f);
+    public static final DetailProfile MEDIUM = new DetailProfile(3, true, 0, 0f);
+    public static final DetailProfile SMALL = new DetailProfile(2, false, 30, 45f);
+
+    private final int mMaxGradientColors;
+    private final boolean mAntiAlias;
+    private final int mTargetFrameRate;
+    private final float mMinSweepAngle;
+
+    /**
+     * @param maxGradientColors at least 2, or 0 to keep all colors
+     * @param targetFrameRate   0 to keep the configured frame rate
+     * @param minSweepAngle     lower bound for the configured min sweep angle, 0 to keep it
+     */
+    public DetailProfile(int maxGradientColors, boolean antiAlias, int targetFrameRate, float minSweepAngle) {
+        mMaxGradientColors = maxGradientColors;
+        mAntiAlias = antiAlias;
+        mTargetFrameRate = targetFrameRate;
+        mMinSweepAngle = minSweepAngle;
+    }
+
+    /**
+     * @param size drawn size in pixels, i.e. the arc diameter plus the stroke width
+     */
+    public static DetailProfile select(float size, float smallMaxSize, float mediumMaxSize) {
+        if (size <= 0f) {
+            // bounds not known yet
+            return FULL;
+        } else if (size <= smallMaxSize) {
+            return SMALL;
+        } else if (size <= mediumMaxSize) {
+            return MEDIUM;
+        }
+        return FULL;
+    }
+
+    public int getMaxGradientColors() {
+        return mMaxGradientColors;
+    }
+
+    public boolean isAntiAlias() {
+        return mAntiAlias;
+    }
+
+    public int getTargetFrameRate() {
+        return mTargetFrameRate;
+    }
+
+    public float getMinSweepAngle() {
+        return mMinSweepAngle;
+    }
+
+    /**
+     * @return {@code colors} evenly sampled down to the max gradient colors, keeping the first and the last (head)
+     * color, or {@code colors} itself if it is short enough
+     */
+    public int[] reduceColors(int[] colors) {
+        if (mMaxGradientColors <= 0 || colors.length <= mMaxGradientColors) {
+            return colors;
+        }
+        int count = Math.max(2, mMaxGradientColors);
+        int[] reduced = new int[count];
+        for (int i = 0; i < count; i++) {
+            reduced[i] = colors[Math.round(i * (colors.length - 1) / (float) (count - 1))];
+        }
+        return reduced;
+    }
+
+    /**
+     * @return the lower of two frame rates, where 0 means the display frame rate
+     */
+    public static int minFrameRate(int frameRate, int otherFrameRate) {
+        if (frameRate <= 0) {
+            return otherFrameRate;
+        } else if (otherFrameRate <= 0) {
+            return frameRate;
+        }
+        return Math.min(frameRate, otherFrameRate);
+    }
+}
@@ -0,0 +1,61 @@
+package com.gmail.pingkiuho.intermediateprogressbardrawable.progressbar.model;
+
+import java.util.HashMap;
+
+/**
+ * A {@link CubicBezierEasing} sampled into a float table, evaluated with one array read and a lerp.
+ * <p>
+ * The curve is sampled at {@link #SAMPLE_COUNT} evenly spaced inputs. For {@link #FAST_OUT_SLOW_IN} the output
+ * differs from the exact curve by at most {@link #MAX_ERROR}, which is below 0.02 degree of a 335 degree sweep.
+ * Tables are immutable and shared through {@link #of(CubicBezierEasing)}, so every drawable using the same curve
+ * uses the same table.
+ */
+public final class EasingTable {
+    public static final int SAMPLE_COUNT = 257;
+
+    /**
+     * Upper bound of {@code |table(x) - curve(x)|} for {@link #FAST_OUT_SLOW_IN}
+     */
+    public static final float MAX_ERROR = 5e-5f;
+
+    private static final HashMap<CubicBezierEasing, EasingTable> sTables = new HashMap<>();
+
+    public static final EasingTable FAST_OUT_SLOW_IN = of(CubicBezierEasing.FAST_OUT_SLOW_IN);
+
+    private final float[] mValues;
+    private final float mStepScale;
+
+    /**
+     * @return the shared table of the curve, compiled on first use
+     */
+    public static EasingTable of(CubicBezierEasing easing) {
+        synchronized (sTables) {
+            EasingTable table = sTables.get(easing);
+            if (table == null) {
+                table = new EasingTable(easing);
+                sTables.put(easing, table);
+            }
+            return table;
+        }
+    }
+
+    private EasingTable(CubicBezierEasing easing) {
+        mValues = new float[SAMPLE_COUNT];
+        mStepScale = SAMPLE_COUNT - 1;
+        for (int i = 0; i < SAMPLE_COUNT; i++) {
+            mValues[i] = easing.getInterpolation(i / mStepScale);
+        }
+    }
+
+    public float getInterpolation(float input) {
+        if (input <= 0f) {
+            return 0f;
+        } else if (input >= 1f) {
+            return 1f;
+        }
+        float position = input * mStepScale;
+        int index = (int) position;
+        float fraction = position - index;
+        return mValues[index] + (mValues[index + 1] - mValues[index]) * fraction;
+    }
+}
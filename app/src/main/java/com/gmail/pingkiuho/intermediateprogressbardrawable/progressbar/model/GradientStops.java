@@ -0,0 +1,33 @@
+package com.gmail.pingkiuho.intermediateprogressbardrawable.progressbar.model;
+
+/**
+ * Color stop positions of the sweep gradient used by the gradient mode.
+ */
+public final class GradientStops {
+    private GradientStops() {
+    }
+
+    /**
+     * Spread {@code colorCount} colors evenly over {@code sweepAngle}, centered in the sweep gradient circle.
+     * The first and last positions are pinned to 0 and 1 for the duplicated first and last colors.
+     *
+     * @param positions receives {@code colorCount + 2} positions
+     */
+    public static void computePositions(float sweepAngle, int colorCount, float[] positions) {
+        float nonSweepSpacesOffset = (360f - sweepAngle) / 2;
+        float degreesPerColor = sweepAngle / colorCount;
+
+        positions[0] = 0f;
+        positions[colorCount + 1] = 1f;
+        for (int i = 0; i < colorCount; i++) {
+            positions[i + 1] = (degreesPerColor * (i + 0.5f) + nonSweepSpacesOffset) / 360f;
+        }
+    }
+
+    /**
+     * @return rotation of the gradient so that its colors end at the arc head
+     */
+    public static float rotation(float startAngle, float sweepAngle, float gradientSweepAngle) {
+        return startAngle + sweepAngle + (360f - gradientSweepAngle) / 2;
+    }
+}
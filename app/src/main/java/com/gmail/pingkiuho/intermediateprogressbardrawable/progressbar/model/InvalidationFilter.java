@@ -0,0 +1,70 @@
+package com.gmail.pingkiuho.intermediateprogressbardrawable.progressbar.model;
+
+/**
+ * Decides whether a newly computed frame is worth drawing, compared to the last drawn one.
+ * <p>
+ * A frame is skipped if it comes earlier than the target frame rate allows, or if neither arc endpoint moved by
+ * at least the pixel threshold. Skipped frames do not move the reference, so slow motion still accumulates.
+ */
+public final class InvalidationFilter {
+    /**
+     * Vsync timestamps jitter, a frame slightly earlier than the interval is still accepted
+     */
+    private static final long FRAME_SLACK_NANOS = 1000000L;
+
+    private long mMinFrameIntervalNanos;
+    private float mMinMovePixels;
+
+    private boolean mHasLastFrame;
+    private long mLastElapsedNanos;
+    private float mLastStartAngle;
+    private float mLastEndAngle;
+
+    /**
+     * @param frameRate 0 to draw at the display frame rate
+     */
+    public void setTargetFrameRate(int frameRate) {
+        mMinFrameIntervalNanos = frameRate > 0 ? 1000000000L / frameRate : 0;
+    }
+
+    public void setMinMovePixels(float pixels) {
+        mMinMovePixels = Math.max(0f, pixels);
+    }
+
+    /**
+     * Forget the last drawn frame, the next frame is always drawn
+     */
+    public void reset() {
+        mHasLastFrame = false;
+    }
+
+    /**
+     * @param radius arc radius in pixels
+     * @return true if the frame should be drawn, it then becomes the reference for the next frames
+     */
+    public boolean shouldDraw(long elapsedNanos, ArcFrame frame, float radius) {
+        float endAngle = frame.startAngle + frame.sweepAngle;
+        if (mHasLastFrame) {
+            if (elapsedNanos - mLastElapsedNanos < mMinFrameIntervalNanos - FRAME_SLACK_NANOS) {
+                return false;
+            }
+            if (mMinMovePixels > 0f) {
+                float moveAngle = Math.max(angleDistance(frame.startAngle, mLastStartAngle), angleDistance(endAngle, mLastEndAngle));
+                if (Math.toRadians(moveAngle) * radius < mMinMovePixels) {
+                    return false;
+                }
+            }
+        }
+
+        mHasLastFrame = true;
+        mLastElapsedNanos = elapsedNanos;
+        mLastStartAngle = frame.startAngle;
+        mLastEndAngle = endAngle;
+        return true;
+    }
+
+    private static float angleDistance(float a, float b) {
+        float distance = Math.abs(a - b) % 360f;
+        return distance > 180f ? 360f - distance : distance;
+    }
+}
@@ -0,0 +1,56 @@
+package com.gmail.pingkiuho.intermediateprogressbardrawable.progressbar.model;
+
+/**
+ * Maps an {@link ArcFrame} onto a horizontal track for the linear mode, so both modes run on the same animation:
+ * 360 degrees are one track length, the rotation moves the segment to the right and the sweep grows and shrinks it.
+ * A segment running past the end of the track wraps around to its start, which splits it in two.
+ */
+public final class LinearSegments {
+    /**
+     * Size of the array filled by {@link #compute(ArcFrame, float, float[])}
+     */
+    public static final int SIZE = 6;
+
+    public static final int FIRST_START = 0;
+    public static final int FIRST_END = 1;
+    public static final int SECOND_START = 2;
+    public static final int SECOND_END = 3;
+    /**
+     * Start of the whole segment before wrapping, in the first segment's coordinates, for gradients
+     */
+    public static final int LOGICAL_START = 4;
+    public static final int LOGICAL_LENGTH = 5;
+
+    private LinearSegments() {
+    }
+
+    /**
+     * @param out receives {@link #SIZE} values in pixels from the track start, the second segment only if wrapped
+     * @return number of segments, 0, 1 or 2
+     */
+    public static int compute(ArcFrame frame, float trackLength, float[] out) {
+        float sweepAngle = Math.min(frame.sweepAngle, 360f);
+        if (sweepAngle <= 0f || trackLength <= 0f) {
+            return 0;
+        }
+        float startAngle = frame.startAngle % 360f;
+        if (startAngle < 0f) {
+            startAngle += 360f;
+        }
+
+        float start = startAngle / 360f * trackLength;
+        float length = sweepAngle / 360f * trackLength;
+        float end = start + length;
+        out[LOGICAL_START] = start;
+        out[LOGICAL_LENGTH] = length;
+        out[FIRST_START] = start;
+        if (end <= trackLength) {
+            out[FIRST_END] = end;
+            return 1;
+        }
+        out[FIRST_END] = trackLength;
+        out[SECOND_START] = 0f;
+        out[SECOND_END] = end - trackLength;
+        return 2;
+    }
+}
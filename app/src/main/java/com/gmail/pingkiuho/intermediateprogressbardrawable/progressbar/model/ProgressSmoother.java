@@ -0,0 +1,48 @@
+package com.gmail.pingkiuho.intermediateprogressbardrawable.progressbar.model;
+
+/**
+ * Exponential smoothing of the displayed determinate progress toward its target, frame rate independent.
+ * The displayed value covers about 63% of the remaining distance every time constant.
+ */
+public final class ProgressSmoother {
+    public static final long DEFAULT_TIME_CONSTANT_NANOS = 80000000L;
+
+    /**
+     * Distance to the target below which the value snaps to it, about 0.04 degree of the arc
+     */
+    static final float SETTLE_EPSILON = 1e-4f;
+
+    private final long mTimeConstantNanos;
+    private float mValue;
+
+    public ProgressSmoother() {
+        this(DEFAULT_TIME_CONSTANT_NANOS);
+    }
+
+    public ProgressSmoother(long timeConstantNanos) {
+        mTimeConstantNanos = timeConstantNanos;
+    }
+
+    /**
+     * @return the displayed value after moving toward {@code target} for {@code deltaNanos}
+     */
+    public float step(float target, long deltaNanos) {
+        if (mTimeConstantNanos <= 0 || deltaNanos >= mTimeConstantNanos * 16) {
+            mValue = target;
+        } else if (deltaNanos > 0) {
+            mValue += (target - mValue) * (float) (1 - Math.exp(-deltaNanos / (double) mTimeConstantNanos));
+        }
+        if (Math.abs(target - mValue) < SETTLE_EPSILON) {
+            mValue = target;
+        }
+        return mValue;
+    }
+
+    public float getValue() {
+        return mValue;
+    }
+
+    public void snapTo(float value) {
+        mValue = value;
+    }
+}
@@ -0,0 +1,104 @@
+package com.gmail.pingkiuho.intermediateprogressbardrawable.progressbar.model;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Process-wide LRU cache of {@link ArcSpec}s with sweep angles adjusted for the stroke by {@link SweepAngleRange}.
+ * Drawables of the same configuration and size, and the sizes a resize animation passes through again, share one
+ * copy instead of redoing the trigonometry and allocating a new spec on every bounds change.
+ * <p>
+ * Lookups reuse one probe key, so a hit does not allocate. Thread-safe.
+ */
+public final class StrokeGeometryCache {
+    public static final int MAX_ENTRIES = 64;
+
+    private static final LinkedHashMap<Key, ArcSpec> sCache = new LinkedHashMap<Key, ArcSpec>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, ArcSpec> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+    private static final Key sProbe = new Key();
+    private static final SweepAngleRange sSweepAngleRange = new SweepAngleRange();
+
+    private StrokeGeometryCache() {
+    }
+
+    /**
+     * @param spec     the unadjusted spec, the result is a copy with adjusted sweep angles or the spec itself
+     * @param diameter diameter of the arc, measured at the center of the stroke
+     */
+    public static synchronized ArcSpec obtain(ArcSpec spec, float minSweepAngle, float maxSweepAngle, float strokeWidthInPx,
+                                              float diameter, boolean buttCap, boolean gradient) {
+        sProbe.set(spec, minSweepAngle, maxSweepAngle, strokeWidthInPx, diameter, buttCap, gradient);
+        ArcSpec adjusted = sCache.get(sProbe);
+        if (adjusted == null) {
+            sSweepAngleRange.adjustForStroke(minSweepAngle, maxSweepAngle, strokeWidthInPx, diameter, buttCap, gradient);
+            adjusted = spec.withSweepAngles(sSweepAngleRange.minSweepAngle, sSweepAngleRange.maxSweepAngle);
+            sCache.put(sProbe.copy(), adjusted);
+        }
+        return adjusted;
+    }
+
+    public static synchronized void clear() {
+        sCache.clear();
+    }
+
+    private static final class Key {
+        private ArcSpec mSpec;
+        private float mMinSweepAngle;
+        private float mMaxSweepAngle;
+        private float mStrokeWidthInPx;
+        private float mDiameter;
+        private boolean mButtCap;
+        private boolean mGradient;
+
+        void set(ArcSpec spec, float minSweepAngle, float maxSweepAngle, float strokeWidthInPx, float diameter,
+                 boolean buttCap, boolean gradient) {
+            mSpec = spec;
+            mMinSweepAngle = minSweepAngle;
+            mMaxSweepAngle = maxSweepAngle;
+            mStrokeWidthInPx = strokeWidthInPx;
+            mDiameter = diameter;
+            mButtCap = buttCap;
+            mGradient = gradient;
+        }
+
+        Key copy() {
+            Key key = new Key();
+            key.set(mSpec, mMinSweepAngle, mMaxSweepAngle, mStrokeWidthInPx, mDiameter, mButtCap, mGradient);
+            return key;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return Float.compare(mMinSweepAngle, other.mMinSweepAngle) == 0
+                    && Float.compare(mMaxSweepAngle, other.mMaxSweepAngle) == 0
+                    && Float.compare(mStrokeWidthInPx, other.mStrokeWidthInPx) == 0
+                    && Float.compare(mDiameter, other.mDiameter) == 0
+                    && mButtCap == other.mButtCap
+                    && mGradient == other.mGradient
+                    && mSpec.equals(other.mSpec);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = mSpec.hashCode();
+            result = 31 * result + Float.floatToIntBits(mMinSweepAngle);
+            result = 31 * result + Float.floatToIntBits(mMaxSweepAngle);
+            result = 31 * result + Float.floatToIntBits(mStrokeWidthInPx);
+            result = 31 * result + Float.floatToIntBits(mDiameter);
+            result = 31 * result + (mButtCap ? 1 : 0);
+            result = 31 * result + (mGradient ? 1 : 0);
+            return result;
+        }
+    }
+}
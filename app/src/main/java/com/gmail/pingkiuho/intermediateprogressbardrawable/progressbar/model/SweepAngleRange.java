@@ -0,0 +1,45 @@
+package com.gmail.pingkiuho.intermediateprogressbardrawable.progressbar.model;
+
+/**
+ * Min/max sweep angles in degrees, reused across bounds changes.
+ */
+public final class SweepAngleRange {
+    public float minSweepAngle;
+    public float maxSweepAngle;
+
+    /**
+     * Since StrokeCap style, ROUND and SQUARE, will added extra stroke length, stroke ends may overlapped
+     * Also, they need at least 1px min sweep in order to prevent flash problem when sweep disappear
+     *
+     * @param diameter diameter of the arc, measured at the center of the stroke
+     */
+    public void adjustForStroke(float minSweepAngle, float maxSweepAngle, float strokeWidthInPx, float diameter, boolean buttCap, boolean gradient) {
+        this.minSweepAngle = minSweepAngle;
+        this.maxSweepAngle = maxSweepAngle;
+
+        /*
+        adjust min/max sweep angle if matched below conditions
+        - Cap type is ROUND or SQUARE (not BUTT)
+            - Stroke head will overlap the stroke end when max sweep (Max draw angle + stroke width > 360 degrees)
+            - Enabled gradient
+                - Min sweep < two stroke width
+         */
+        if (!buttCap) {
+            if (gradient) {
+                double strokeWidthAngle = Math.toDegrees(Math.atan2(strokeWidthInPx / 2, diameter / 2)) * 2;
+                if (maxSweepAngle + minSweepAngle + strokeWidthAngle > 360) {
+                    this.minSweepAngle = (float) (minSweepAngle + strokeWidthAngle);
+                    this.maxSweepAngle = (float) (maxSweepAngle - strokeWidthAngle);
+                }
+                if (minSweepAngle < strokeWidthAngle * 2) {
+                    this.minSweepAngle = (float) (strokeWidthAngle * 2);
+                }
+            }
+
+            // make sure at least 1px for min sweep angle
+            if (this.minSweepAngle < 1f) {
+                this.minSweepAngle = 1f;
+            }
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.gmail.pingkiuho.intermediateprogressbardrawable.util;
 
 import android.content.Context;
+import android.content.res.Resources;
 import android.util.SizeF;
 import android.widget.ImageView;
 
@@ -13,6 +14,10 @@ public class DimensionUtil {
         return dp * context.getResources().getDisplayMetrics().density;
     }
 
+    public static float dpToPx(Resources resources, float dp) {
+        return dp * resources.getDisplayMetrics().density;
+    }
+
     public static float pxToDp(Context context, float px) {
         return px / context.getResources().getDisplayMetrics().density;
     }
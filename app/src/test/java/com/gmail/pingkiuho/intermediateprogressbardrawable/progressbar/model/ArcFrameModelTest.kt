@@ -0,0 +1,122 @@
+package com.gmail.pingkiuho.intermediateprogressbardrawable.progressbar.model
+
+import org.junit.Assert.assertEquals
+import org.junit.Test
+
+class ArcFrameModelTest {
+    companion object {
+        private const val SWEEP_NANOS = 1200000000L
+        private const val MIN_SWEEP = 25f
+        private const val MAX_SWEEP = 335f
+        private const val DELTA = 0.01f
+    }
+
+    private val frame = ArcFrame()
+
+    private fun spec(sweep: Boolean = true, rotation: Boolean = false, sweepDurationNanos: Long = SWEEP_NANOS) =
+            ArcSpec.Builder()
+                    .sweep(sweep)
+                    .rotation(rotation)
+                    .sweepDurationNanos(sweepDurationNanos)
+                    .minSweepAngle(MIN_SWEEP)
+                    .maxSweepAngle(MAX_SWEEP)
+                    .build()
+
+    private fun compute(spec: ArcSpec, elapsedNanos: Long, endStartedNanos: Long = ArcFrameModel.NOT_ENDING): ArcFrame {
+        ArcFrameModel.compute(spec, elapsedNanos, endStartedNanos, frame)
+        return frame
+    }
+
+    private fun normalize(angle: Float) = ((angle % 360f) + 360f) % 360f
+
+    @Test
+    fun firstCycle_growsFromZero() {
+        val spec = spec()
+        val easing = spec.sweepEasing.getInterpolation(0.5f)
+
+        assertEquals(0f, compute(spec, 0).sweepAngle, DELTA)
+        assertEquals(easing * MAX_SWEEP, compute(spec, SWEEP_NANOS / 2).sweepAngle, DELTA)
+        assertEquals(MAX_SWEEP, compute(spec, SWEEP_NANOS).sweepAngle, DELTA)
+        // later cycles grow from min
+        assertEquals(MIN_SWEEP, compute(spec, SWEEP_NANOS * 2).sweepAngle, DELTA)
+        assertEquals(MIN_SWEEP + easing * (MAX_SWEEP - MIN_SWEEP), compute(spec, SWEEP_NANOS * 5 / 2).sweepAngle, DELTA)
+    }
+
+    @Test
+    fun everyCycle_movesBackByTheSweepGap() {
+        val spec = spec()
+        val gap = 360f - MAX_SWEEP + MIN_SWEEP
+        val phases = longArrayOf(0L, SWEEP_NANOS / 3, SWEEP_NANOS, SWEEP_NANOS * 3 / 2)
+
+        for (cycle in 1..5) {
+            for (phase in phases) {
+                // the first appearing sweep grows from 0, so compare with the second cycle from there on
+                val previous = if (cycle == 1 && phase < SWEEP_NANOS) 2 else cycle
+                val startAngle = compute(spec, (previous - 1) * SWEEP_NANOS * 2 + phase).startAngle
+                val nextStartAngle = compute(spec, previous * SWEEP_NANOS * 2 + phase).startAngle
+                assertEquals("cycle $previous at $phase", normalize(-gap), normalize(nextStartAngle - startAngle), DELTA)
+            }
+        }
+    }
+
+    @Test
+    fun disappearingSweep_keepsTheHead() {
+        val spec = spec()
+        val head = compute(spec, SWEEP_NANOS).let { it.startAngle + it.sweepAngle }
+
+        for (phase in longArrayOf(SWEEP_NANOS / 4, SWEEP_NANOS / 2, SWEEP_NANOS * 3 / 4)) {
+            val frame = compute(spec, SWEEP_NANOS + phase)
+            assertEquals(normalize(head), normalize(frame.startAngle + frame.sweepAngle), DELTA)
+        }
+    }
+
+    @Test
+    fun zeroSweepDuration_holdsTheMaxSweep() {
+        for (sweepDurationNanos in longArrayOf(0L, -1L)) {
+            val spec = spec(sweepDurationNanos = sweepDurationNanos)
+            for (elapsedNanos in longArrayOf(0L, 1L, SWEEP_NANOS)) {
+                val frame = compute(spec, elapsedNanos)
+                assertEquals(0f, frame.startAngle, DELTA)
+                assertEquals(MAX_SWEEP, frame.sweepAngle, DELTA)
+                assertEquals(1f, frame.endRatio, DELTA)
+            }
+            // nothing to animate out
+            val frame = compute(spec, SWEEP_NANOS, SWEEP_NANOS)
+            assertEquals(0f, frame.endRatio, DELTA)
+            assertEquals(0f, frame.sweepAngle, DELTA)
+        }
+    }
+
+    @Test
+    fun progressiveStop_endsAfterOneSweepDuration() {
+        val spec = spec(sweep = false)
+        val endStartedNanos = 1000000000L
+
+        assertEquals(1f, compute(spec, endStartedNanos, endStartedNanos).endRatio, DELTA)
+
+        val half = compute(spec, endStartedNanos + SWEEP_NANOS / 2, endStartedNanos)
+        assertEquals(0.5f, half.endRatio, DELTA)
+        assertEquals(MAX_SWEEP / 2, half.sweepAngle, DELTA)
+        // shrinks toward the head
+        assertEquals(MAX_SWEEP, half.startAngle + half.sweepAngle, DELTA)
+
+        for (elapsedNanos in longArrayOf(endStartedNanos + SWEEP_NANOS, endStartedNanos + SWEEP_NANOS * 3)) {
+            val frame = compute(spec, elapsedNanos, endStartedNanos)
+            assertEquals(0f, frame.endRatio, 0f)
+            assertEquals(0f, frame.sweepAngle, DELTA)
+        }
+    }
+
+    @Test
+    fun progressiveStop_determinate() {
+        val spec = spec()
+        val endStartedNanos = 500000000L
+
+        ArcFrameModel.computeDeterminate(spec, 0.5f, endStartedNanos + SWEEP_NANOS / 2, endStartedNanos, frame)
+        assertEquals(0.5f, frame.endRatio, DELTA)
+        assertEquals(90f, frame.sweepAngle, DELTA)
+
+        ArcFrameModel.computeDeterminate(spec, 0.5f, endStartedNanos + SWEEP_NANOS, endStartedNanos, frame)
+        assertEquals(0f, frame.endRatio, 0f)
+    }
+}
@@ -0,0 +1,128 @@
+package com.gmail.pingkiuho.intermediateprogressbardrawable.progressbar.model
+
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertTrue
+import org.junit.Test
+
+import javax.imageio.ImageIO
+
+/**
+ * ArcRasterizer against the Canvas.drawArc conventions it follows (angles clockwise from 3 o'clock, stroke centered on
+ * the circle, Paint.Cap extents, the drawable's SweepGradient stops), and against small golden images in
+ * src/test/resources/golden, one per cap in solid and gradient.
+ */
+class ArcRasterizerTest {
+    companion object {
+        private const val SIZE = 32
+        private const val CENTER = 16f
+        private const val RADIUS = 11f
+        private const val STROKE_WIDTH = 6f
+        private const val HALF_STROKE = STROKE_WIDTH / 2
+        private const val COLOR = 0xff3f51b5.toInt()
+        private val GRADIENT = intArrayOf(0xffff0000.toInt(), 0xff0000ff.toInt())
+        // per channel, for float differences of the trigonometry between JVMs
+        private const val GOLDEN_TOLERANCE = 4
+        private val CAP_NAMES = mapOf(ArcRasterizer.CAP_BUTT to "butt", ArcRasterizer.CAP_ROUND to "round",
+                ArcRasterizer.CAP_SQUARE to "square")
+    }
+
+    private fun rasterizer(cap: Int, gradient: Boolean): ArcRasterizer {
+        val rasterizer = ArcRasterizer(SIZE, SIZE)
+        rasterizer.setStroke(STROKE_WIDTH, cap)
+        if (gradient) {
+            rasterizer.setGradient(GRADIENT)
+        } else {
+            rasterizer.setColor(COLOR)
+        }
+        rasterizer.clear(0)
+        return rasterizer
+    }
+
+    private fun ArcRasterizer.alpha(x: Int, y: Int) = pixels[y * SIZE + x] ushr 24
+
+    private fun ArcRasterizer.coverage() = pixels.sumBy { it ushr 24 } / 255f
+
+    @Test
+    fun angles_clockwiseFromThreeOClock() {
+        for (cap in CAP_NAMES.keys) {
+            val rasterizer = rasterizer(cap, false)
+            rasterizer.drawArc(CENTER, CENTER, RADIUS, 0f, 90f)
+
+            // start at 3 o'clock, through 6 o'clock, not 12 or 9 o'clock
+            assertEquals(255, rasterizer.alpha(27, 17))
+            assertEquals(255, rasterizer.alpha(16, 27))
+            assertEquals(0, rasterizer.alpha(16, 4))
+            assertEquals(0, rasterizer.alpha(4, 16))
+        }
+    }
+
+    @Test
+    fun caps_extendPastTheEnds() {
+        val butt = rasterizer(ArcRasterizer.CAP_BUTT, false)
+        val round = rasterizer(ArcRasterizer.CAP_ROUND, false)
+        val square = rasterizer(ArcRasterizer.CAP_SQUARE, false)
+        for (rasterizer in listOf(butt, round, square)) {
+            rasterizer.drawArc(CENTER, CENTER, RADIUS, 0f, 90f)
+        }
+
+        // 2.5px before the start, on the circle
+        assertEquals(0, butt.alpha(27, 13))
+        assertTrue(round.alpha(27, 13) > 200)
+        assertEquals(255, square.alpha(27, 13))
+        // the same distance before the start and outward, only inside the square cap's corner
+        assertEquals(0, butt.alpha(29, 13))
+        assertEquals(0, round.alpha(29, 13))
+        assertEquals(255, square.alpha(29, 13))
+
+        // a quarter circle of stroke, plus two half discs for round, plus two half squares for square
+        val body = (Math.PI * RADIUS / 2 * STROKE_WIDTH).toFloat()
+        assertEquals(body, butt.coverage(), body * 0.03f)
+        val roundArea = body + (Math.PI * HALF_STROKE * HALF_STROKE).toFloat()
+        assertEquals(roundArea, round.coverage(), roundArea * 0.03f)
+        val squareArea = body + 2 * STROKE_WIDTH * HALF_STROKE
+        assertEquals(squareArea, square.coverage(), squareArea * 0.03f)
+    }
+
+    @Test
+    fun gradient_runsFromTheTailToTheHead() {
+        val rasterizer = rasterizer(ArcRasterizer.CAP_BUTT, true)
+        rasterizer.drawArc(CENTER, CENTER, RADIUS, 0f, 270f)
+
+        // the first color at the tail, the last color at the head, as the drawable's SweepGradient
+        assertEquals(GRADIENT[0], rasterizer.pixels[17 * SIZE + 27])
+        assertEquals(GRADIENT[1], rasterizer.pixels[5 * SIZE + 15])
+    }
+
+    @Test
+    fun matchesGoldenImages() {
+        for ((cap, capName) in CAP_NAMES) {
+            for (gradient in booleanArrayOf(false, true)) {
+                val name = "arc_${capName}_${if (gradient) "gradient" else "solid"}.png"
+                val rasterizer = rasterizer(cap, gradient)
+                rasterizer.drawArc(CENTER, CENTER, RADIUS, 30f, 240f)
+
+                val golden = javaClass.getResourceAsStream("/golden/$name").use { ImageIO.read(it) }
+                assertEquals(name, SIZE, golden.width)
+                assertEquals(name, SIZE, golden.height)
+                var mismatches = 0
+                for (y in 0 until SIZE) {
+                    for (x in 0 until SIZE) {
+                        if (!isClose(golden.getRGB(x, y), rasterizer.pixels[y * SIZE + x])) {
+                            mismatches++
+                        }
+                    }
+                }
+                assertEquals("$name: pixels off by more than $GOLDEN_TOLERANCE", 0, mismatches)
+            }
+        }
+    }
+
+    private fun isClose(expected: Int, actual: Int): Boolean {
+        for (shift in intArrayOf(24, 16, 8, 0)) {
+            if (Math.abs(((expected ushr shift) and 0xff) - ((actual ushr shift) and 0xff)) > GOLDEN_TOLERANCE) {
+                return false
+            }
+        }
+        return true
+    }
+}
@@ -0,0 +1,171 @@
+package com.gmail.pingkiuho.intermediateprogressbardrawable.progressbar.model
+
+import org.junit.Assert.assertTrue
+import org.junit.Test
+
+import java.lang.management.ManagementFactory
+
+/**
+ * Allocation and frame time gate for the per-frame work of IntermediateProgressBarDrawable.
+ *
+ * A simulated clock drives the drawable's own frame step, [ArcAnimation] (progress smoother, frame model, progressive
+ * stop, invalidation filter), with the quality governor ticked before it as the drawable does. Bounds changes go
+ * through [ArcAnimation.setGeometry] during a resize animation, and drawn frames through the model side of draw()
+ * (gradient stops, linear segments). A phased ring stands for a ring of ConcentricProgressBarDrawable, which steps one
+ * [ArcAnimation] per ring. Every mode runs for thousands of sweep cycles in total.
+ * Canvas and Paint calls are framework code that cannot run on the host, DrawableMetrics covers them on a device.
+ */
+class FrameAllocationTest {
+    companion object {
+        private const val FRAME_NANOS = 16666667L
+        private const val WARMUP_FRAMES = 5000
+        private const val FRAMES = 20000
+        // a progressive stop starts after this much animation, then the drawable starts again
+        private const val STOP_AFTER_NANOS = 3000000000L
+        // the bounds change every this many frames, going through the resize sizes
+        private const val BOUNDS_CHANGE_FRAMES = 10
+        private val RESIZE_SIZES = floatArrayOf(48f, 52f, 56f, 60f, 56f, 52f)
+        // far above the few microseconds a frame takes, only catches pathological slowdowns on a loaded machine
+        private const val FRAME_BUDGET_NANOS = 2000000L
+        private const val SIZE = 48f
+        private const val STROKE_WIDTH = 4f
+        private val COLORS = intArrayOf(0xffff0000.toInt(), 0xff00ff00.toInt(), 0xff0000ff.toInt())
+        private val CAPS = intArrayOf(ArcRasterizer.CAP_BUTT, ArcRasterizer.CAP_ROUND, ArcRasterizer.CAP_SQUARE)
+    }
+
+    private enum class Kind { CIRCULAR, HORIZONTAL, DETERMINATE, RING }
+
+    private data class Mode(val kind: Kind,
+                            val sweep: Boolean,
+                            val rotation: Boolean,
+                            val gradient: Boolean,
+                            val cap: Int,
+                            val progressiveStop: Boolean)
+
+    /**
+     * The drawable's calls into the model per clock tick, bounds change and drawn frame
+     */
+    private class SimulatedDrawable(private val mode: Mode) {
+        private val spec = ArcSpec.Builder().sweep(mode.sweep).rotation(mode.rotation).build()
+        private val animation = ArcAnimation()
+        private val qualityGovernor = AdaptiveQualityGovernor()
+        private val segments = FloatArray(LinearSegments.SIZE)
+        private val positions = FloatArray(COLORS.size + 2)
+        private var elapsedNanos = 0L
+        private var size = SIZE
+
+        init {
+            animation.setSpec(spec)
+            if (mode.kind == Kind.RING) {
+                animation.setPhaseNanos(spec.sweepDurationNanos / 3)
+            }
+            animation.setDeterminate(mode.kind == Kind.DETERMINATE)
+            onBoundsChange(SIZE)
+        }
+
+        fun onBoundsChange(size: Float) {
+            this.size = size
+            if (mode.kind == Kind.HORIZONTAL) {
+                animation.resetGeometry()
+            } else {
+                animation.setGeometry(spec.minSweepAngle, spec.maxSweepAngle, STROKE_WIDTH, size - STROKE_WIDTH,
+                        mode.cap == ArcRasterizer.CAP_BUTT, mode.gradient)
+            }
+        }
+
+        fun tick(index: Int) {
+            elapsedNanos += FRAME_NANOS
+            qualityGovernor.onFrame(elapsedNanos)
+            if (mode.progressiveStop && !animation.isEnding && elapsedNanos >= STOP_AFTER_NANOS) {
+                if (!mode.sweep && mode.kind != Kind.DETERMINATE) {
+                    // nothing to animate out, the drawable stops at once
+                    restart()
+                    return
+                }
+                animation.startEnding()
+            }
+
+            val radius = if (mode.kind == Kind.HORIZONTAL) size / (2 * Math.PI).toFloat() else size / 2
+            when (animation.tick(elapsedNanos, elapsedNanos, elapsedNanos, (index % 600) / 600f, radius)) {
+                ArcAnimation.TICK_ENDED -> restart()
+                ArcAnimation.TICK_DRAW, ArcAnimation.TICK_SETTLED -> draw()
+            }
+        }
+
+        private fun draw() {
+            val frame = animation.frame
+            if (mode.kind == Kind.HORIZONTAL) {
+                LinearSegments.compute(frame, size, segments)
+            } else if (mode.gradient && qualityGovernor.level < AdaptiveQualityGovernor.QUALITY_SOLID_COLOR) {
+                GradientStops.computePositions(frame.sweepAngle, COLORS.size, positions)
+                GradientStops.rotation(frame.startAngle, frame.sweepAngle, frame.sweepAngle)
+            }
+        }
+
+        private fun restart() {
+            elapsedNanos = 0
+            animation.reset()
+        }
+    }
+
+    @Test
+    fun steadyStateFrames_doNotAllocate() {
+        val threadBean = ManagementFactory.getThreadMXBean() as com.sun.management.ThreadMXBean
+        val threadId = Thread.currentThread().id
+        val modes = allModes()
+
+        // compile the hot paths of every mode before measuring any
+        for (mode in modes) {
+            run(SimulatedDrawable(mode), WARMUP_FRAMES)
+        }
+
+        val failures = ArrayList<String>()
+        for (mode in modes) {
+            val drawable = SimulatedDrawable(mode)
+            val startBytes = threadBean.getThreadAllocatedBytes(threadId)
+            val startNanos = System.nanoTime()
+            run(drawable, FRAMES)
+            val elapsedNanos = System.nanoTime() - startNanos
+            val bytes = threadBean.getThreadAllocatedBytes(threadId) - startBytes
+
+            // under one byte per frame, so one-off noise passes but any object per frame fails
+            if (bytes >= FRAMES) {
+                failures.add("$mode: ${bytes / FRAMES} bytes per frame")
+            }
+            // reported rather than tightly asserted, wall-clock time depends on the machine and its load
+            println("$mode: ${elapsedNanos / FRAMES} ns per frame")
+            if (elapsedNanos / FRAMES > FRAME_BUDGET_NANOS) {
+                failures.add("$mode: ${elapsedNanos / FRAMES} ns per frame, budget $FRAME_BUDGET_NANOS ns")
+            }
+        }
+        assertTrue(failures.joinToString("\n"), failures.isEmpty())
+    }
+
+    private fun run(drawable: SimulatedDrawable, frames: Int) {
+        for (i in 0 until frames) {
+            if (i % BOUNDS_CHANGE_FRAMES == 0) {
+                drawable.onBoundsChange(RESIZE_SIZES[i / BOUNDS_CHANGE_FRAMES % RESIZE_SIZES.size])
+            }
+            drawable.tick(i)
+        }
+    }
+
+    private fun allModes(): List<Mode> {
+        val modes = ArrayList<Mode>()
+        val booleans = booleanArrayOf(true, false)
+        for (kind in Kind.values()) {
+            for (sweep in booleans) {
+                for (rotation in booleans) {
+                    for (gradient in booleans) {
+                        for (cap in CAPS) {
+                            for (progressiveStop in booleans) {
+                                modes.add(Mode(kind, sweep, rotation, gradient, cap, progressiveStop))
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return modes
+    }
+}
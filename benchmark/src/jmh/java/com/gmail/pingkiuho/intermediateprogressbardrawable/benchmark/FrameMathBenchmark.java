@@ -0,0 +1,117 @@
+package com.gmail.pingkiuho.intermediateprogressbardrawable.benchmark;
+
+import com.gmail.pingkiuho.intermediateprogressbardrawable.progressbar.model.ArcFrame;
+import com.gmail.pingkiuho.intermediateprogressbardrawable.progressbar.model.ArcFrameModel;
+import com.gmail.pingkiuho.intermediateprogressbardrawable.progressbar.model.ArcSpec;
+import com.gmail.pingkiuho.intermediateprogressbardrawable.progressbar.model.CubicBezierEasing;
+import com.gmail.pingkiuho.intermediateprogressbardrawable.progressbar.model.EasingTable;
+import com.gmail.pingkiuho.intermediateprogressbardrawable.progressbar.model.GradientStops;
+import com.gmail.pingkiuho.intermediateprogressbardrawable.progressbar.model.SweepAngleRange;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-frame work of IntermediateProgressBarDrawable: the arc angles computed for draw(), the gradient stop
+ * positions, the sweep easing (exact curve against the shared table) and the stroke cap adjustment done on bounds change.
+ * <p>
+ * Run with {@code ./gradlew :benchmark:jmh}, the gc profiler reports {@code gc.alloc.rate.norm} in bytes per operation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FrameMathBenchmark {
+    private static final long FRAME_NANOS = 16666667L;
+    private static final long SWEEP_NANOS = 1200000000L;
+    private static final float MIN_SWEEP_ANGLE = 25f;
+    private static final float MAX_SWEEP_ANGLE = 335f;
+
+    private long mElapsedNanos;
+
+    /**
+     * Size, stroke and color count of the drawable, only for the benchmarks that depend on them
+     */
+    @State(Scope.Thread)
+    public static class Geometry {
+        @Param({"1", "3", "6"})
+        public int colorCount;
+
+        @Param({"2", "8", "24"})
+        public float strokeWidthInPx;
+
+        @Param({"48", "144", "432"})
+        public int sizeInPx;
+
+        private ArcSpec mSpec;
+        private final ArcFrame mFrame = new ArcFrame();
+        private final SweepAngleRange mSweepAngleRange = new SweepAngleRange();
+        private float[] mPositions;
+
+        @Setup
+        public void setup() {
+            float diameter = sizeInPx - strokeWidthInPx;
+            mSweepAngleRange.adjustForStroke(MIN_SWEEP_ANGLE, MAX_SWEEP_ANGLE, strokeWidthInPx, diameter, false, colorCount > 1);
+            mSpec = new ArcSpec.Builder()
+                    .minSweepAngle(mSweepAngleRange.minSweepAngle)
+                    .maxSweepAngle(mSweepAngleRange.maxSweepAngle)
+                    .build();
+            mPositions = new float[colorCount + 2];
+        }
+    }
+
+    @Benchmark
+    public void frameAngles(Geometry geometry, Blackhole blackhole) {
+        mElapsedNanos += FRAME_NANOS;
+        ArcFrameModel.compute(geometry.mSpec, mElapsedNanos, ArcFrameModel.NOT_ENDING, geometry.mFrame);
+        blackhole.consume(geometry.mFrame.startAngle);
+        blackhole.consume(geometry.mFrame.sweepAngle);
+    }
+
+    @Benchmark
+    public void frameAnglesProgressiveStop(Geometry geometry, Blackhole blackhole) {
+        mElapsedNanos += FRAME_NANOS;
+        ArcFrameModel.compute(geometry.mSpec, mElapsedNanos, mElapsedNanos - FRAME_NANOS * 30, geometry.mFrame);
+        blackhole.consume(geometry.mFrame.startAngle);
+        blackhole.consume(geometry.mFrame.sweepAngle);
+    }
+
+    @Benchmark
+    public void gradientStops(Geometry geometry, Blackhole blackhole) {
+        mElapsedNanos += FRAME_NANOS;
+        ArcFrame frame = geometry.mFrame;
+        ArcFrameModel.compute(geometry.mSpec, mElapsedNanos, ArcFrameModel.NOT_ENDING, frame);
+        GradientStops.computePositions(frame.sweepAngle, geometry.colorCount, geometry.mPositions);
+        blackhole.consume(geometry.mPositions);
+        blackhole.consume(GradientStops.rotation(frame.startAngle, frame.sweepAngle, frame.sweepAngle));
+    }
+
+    @Benchmark
+    public float sweepEasingExact() {
+        mElapsedNanos += FRAME_NANOS;
+        return CubicBezierEasing.FAST_OUT_SLOW_IN.getInterpolation((mElapsedNanos % SWEEP_NANOS) / (float) SWEEP_NANOS);
+    }
+
+    @Benchmark
+    public float sweepEasingTable() {
+        mElapsedNanos += FRAME_NANOS;
+        return EasingTable.FAST_OUT_SLOW_IN.getInterpolation((mElapsedNanos % SWEEP_NANOS) / (float) SWEEP_NANOS);
+    }
+
+    @Benchmark
+    public void adjustSweepAngleForStroke(Geometry geometry, Blackhole blackhole) {
+        SweepAngleRange range = geometry.mSweepAngleRange;
+        range.adjustForStroke(MIN_SWEEP_ANGLE, MAX_SWEEP_ANGLE, geometry.strokeWidthInPx, geometry.sizeInPx - geometry.strokeWidthInPx,
+                false, geometry.colorCount > 1);
+        blackhole.consume(range.minSweepAngle);
+        blackhole.consume(range.maxSweepAngle);
+    }
+}
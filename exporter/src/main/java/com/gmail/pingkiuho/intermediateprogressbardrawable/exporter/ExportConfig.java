@@ -0,0 +1,190 @@
+package com.gmail.pingkiuho.intermediateprogressbardrawable.exporter;
+
+import com.gmail.pingkiuho.intermediateprogressbardrawable.progressbar.model.ArcRasterizer;
+import com.gmail.pingkiuho.intermediateprogressbardrawable.progressbar.model.ArcSpec;
+import com.gmail.pingkiuho.intermediateprogressbardrawable.progressbar.model.CubicBezierEasing;
+import com.gmail.pingkiuho.intermediateprogressbardrawable.progressbar.model.SweepAngleRange;
+
+import java.io.File;
+
+/**
+ * Export options, named and defaulted like the methods of IntermediateProgressBarDrawable.Builder,
+ * given on the command line as {@code --name=value}.
+ */
+class ExportConfig {
+    boolean rotation = true;
+    boolean sweep = true;
+    long rotationDuration = 3000;
+    long sweepDuration = 1200;
+    float rotationSpeed = 1f;
+    float sweepSpeed = 1f;
+    CubicBezierEasing sweepEasing = CubicBezierEasing.FAST_OUT_SLOW_IN;
+    float minSweepAngle = 25f;
+    float maxSweepAngle = 335f;
+    float startAtDegree = 0f;
+    float strokeWidth = 8f;
+    int strokeCap = ArcRasterizer.CAP_ROUND;
+    int[] colors = {0xFF3F51B5};
+    boolean gradient;
+
+    // output only
+    int size = 144;
+    int frameRate = 60;
+    long durationMs = -1;
+    int background = 0x00000000;
+    String format = "png";
+    File out = new File("frames");
+
+    static ExportConfig parse(String[] args) {
+        ExportConfig config = new ExportConfig();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("Unexpected argument " + arg);
+            }
+            int separator = arg.indexOf('=');
+            String name = separator < 0 ? arg.substring(2) : arg.substring(2, separator);
+            String value = separator < 0 ? "true" : arg.substring(separator + 1);
+            config.set(name, value);
+        }
+        return config;
+    }
+
+    private void set(String name, String value) {
+        switch (name) {
+            case "rotation":
+                rotation = Boolean.parseBoolean(value);
+                break;
+            case "sweep":
+                sweep = Boolean.parseBoolean(value);
+                break;
+            case "rotationDuration":
+                rotationDuration = Long.parseLong(value);
+                break;
+            case "sweepDuration":
+                sweepDuration = Long.parseLong(value);
+                break;
+            case "rotationSpeed":
+                rotationSpeed = Float.parseFloat(value);
+                break;
+            case "sweepSpeed":
+                sweepSpeed = Float.parseFloat(value);
+                break;
+            case "sweepEasing":
+                String[] points = value.split(",");
+                sweepEasing = new CubicBezierEasing(Float.parseFloat(points[0]), Float.parseFloat(points[1]),
+                        Float.parseFloat(points[2]), Float.parseFloat(points[3]));
+                break;
+            case "minSweepAngle":
+                minSweepAngle = Float.parseFloat(value);
+                break;
+            case "maxSweepAngle":
+                maxSweepAngle = Float.parseFloat(value);
+                break;
+            case "startAtDegree":
+                startAtDegree = Float.parseFloat(value);
+                break;
+            case "strokeWidth":
+                strokeWidth = Float.parseFloat(value);
+                break;
+            case "strokeCap":
+                strokeCap = parseCap(value);
+                break;
+            case "color":
+                colors = new int[]{parseColor(value)};
+                gradient = false;
+                break;
+            case "gradient":
+                String[] colorCodes = value.split(",");
+                colors = new int[colorCodes.length];
+                for (int i = 0; i < colorCodes.length; i++) {
+                    colors[i] = parseColor(colorCodes[i]);
+                }
+                gradient = colors.length > 1;
+                break;
+            case "size":
+                size = Integer.parseInt(value);
+                break;
+            case "frameRate":
+                frameRate = Integer.parseInt(value);
+                break;
+            case "durationMs":
+                durationMs = Long.parseLong(value);
+                break;
+            case "background":
+                background = parseColor(value);
+                break;
+            case "format":
+                format = value;
+                break;
+            case "out":
+                out = new File(value);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown option --" + name);
+        }
+    }
+
+    /**
+     * @return diameter at the center of the stroke, as the drawable insets its bounds by half the stroke
+     */
+    float getDiameter() {
+        return size - strokeWidth;
+    }
+
+    /**
+     * @return colors in drawing order, reversed for a gradient as the Builder does
+     */
+    int[] getDrawingColors() {
+        if (!gradient) {
+            return colors;
+        }
+        int[] reversedColors = new int[colors.length];
+        for (int i = 0; i < colors.length; i++) {
+            reversedColors[i] = colors[colors.length - 1 - i];
+        }
+        return reversedColors;
+    }
+
+    ArcSpec buildArcSpec() {
+        SweepAngleRange range = new SweepAngleRange();
+        range.adjustForStroke(minSweepAngle, maxSweepAngle, strokeWidth, getDiameter(),
+                strokeCap == ArcRasterizer.CAP_BUTT, gradient);
+        return new ArcSpec.Builder()
+                .sweep(sweep)
+                .rotation(rotation)
+                .rotationDurationNanos((long) (rotationDuration / rotationSpeed) * 1000000L)
+                .sweepDurationNanos((long) (sweepDuration / sweepSpeed) * 1000000L)
+                .sweepEasing(sweepEasing)
+                .startAtDegree(startAtDegree)
+                .minSweepAngle(range.minSweepAngle)
+                .maxSweepAngle(range.maxSweepAngle)
+                .build();
+    }
+
+    private static int parseCap(String value) {
+        switch (value.toLowerCase()) {
+            case "butt":
+                return ArcRasterizer.CAP_BUTT;
+            case "square":
+                return ArcRasterizer.CAP_SQUARE;
+            case "round":
+                return ArcRasterizer.CAP_ROUND;
+            default:
+                throw new IllegalArgumentException("Unknown stroke cap " + value);
+        }
+    }
+
+    /**
+     * @param value #RRGGBB or #AARRGGBB, as Color.parseColor
+     */
+    private static int parseColor(String value) {
+        String hex = value.startsWith("#") ? value.substring(1) : value;
+        long color = Long.parseLong(hex, 16);
+        if (hex.length() == 6) {
+            color |= 0xFF000000L;
+        } else if (hex.length() != 8) {
+            throw new IllegalArgumentException("Unknown color " + value);
+        }
+        return (int) color;
+    }
+}
@@ -0,0 +1,173 @@
+package com.gmail.pingkiuho.intermediateprogressbardrawable.exporter;
+
+import com.gmail.pingkiuho.intermediateprogressbardrawable.progressbar.model.ArcFrame;
+import com.gmail.pingkiuho.intermediateprogressbardrawable.progressbar.model.ArcFrameModel;
+import com.gmail.pingkiuho.intermediateprogressbardrawable.progressbar.model.ArcRasterizer;
+import com.gmail.pingkiuho.intermediateprogressbardrawable.progressbar.model.ArcSpec;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.Locale;
+
+import javax.imageio.ImageIO;
+
+/**
+ * Renders the spinner headlessly to a PNG sequence or an animated GIF, for golden images and offline cost numbers.
+ * <p>
+ * Run with {@code ./gradlew :exporter:run -PappArgs="..."} or the installed distribution, e.g.
+ * {@code exporter --size=144 --strokeWidth=12 --gradient=#ff0000,#00ff00,#0000ff --format=gif --out=spinner.gif}.
+ * Options are the Builder's (see {@link ExportConfig}), plus {@code size}, {@code frameRate}, {@code durationMs}
+ * (one seamless loop by default, see {@link #loopCycles(ArcSpec)}), {@code background}, {@code format}
+ * ({@code png} or {@code gif}) and {@code out} (a directory for PNG, a file for GIF).
+ */
+public final class FrameSequenceExporter {
+    static final int MAX_LOOP_CYCLES = 8;
+    static final double LOOP_TOLERANCE_DEGREES = 2;
+
+    private final ExportConfig mConfig;
+    private final ArcSpec mSpec;
+    private final ArcRasterizer mRasterizer;
+    private final ArcFrame mFrame = new ArcFrame();
+
+    public static void main(String[] args) throws IOException {
+        ExportConfig config = ExportConfig.parse(args);
+        new FrameSequenceExporter(config).export();
+    }
+
+    FrameSequenceExporter(ExportConfig config) {
+        mConfig = config;
+        mSpec = config.buildArcSpec();
+        mRasterizer = new ArcRasterizer(config.size, config.size);
+        mRasterizer.setStroke(config.strokeWidth, config.strokeCap);
+        if (config.gradient) {
+            mRasterizer.setGradient(config.getDrawingColors());
+        } else {
+            mRasterizer.setColor(config.colors[0]);
+        }
+    }
+
+    void export() throws IOException {
+        long frameNanos = 1000000000L / mConfig.frameRate;
+        long firstFrameNanos = 0;
+        long durationNanos;
+        // start angle mismatch between the end and the start of the loop, corrected over the loop
+        double loopDrift = 0;
+        if (mConfig.durationMs > 0) {
+            durationNanos = mConfig.durationMs * 1000000L;
+        } else if (mSpec.isSweep() && mSpec.getSweepDurationNanos() > 0) {
+            long cycleNanos = mSpec.getSweepDurationNanos() * 2;
+            int cycles = loopCycles(mSpec);
+            // the very first appearing sweep grows from 0 and never comes back, loop steady cycles after it
+            firstFrameNanos = cycleNanos;
+            durationNanos = cycles * cycleNanos;
+            loopDrift = signedAngle(cycles * cycleDrift(mSpec));
+        } else if (mSpec.isRotation() && mSpec.getRotationDurationNanos() > 0) {
+            durationNanos = mSpec.getRotationDurationNanos();
+        } else {
+            // nothing moves
+            durationNanos = frameNanos;
+        }
+        int frameCount = (int) (durationNanos / frameNanos);
+
+        BufferedImage image = new BufferedImage(mConfig.size, mConfig.size, BufferedImage.TYPE_INT_ARGB);
+        GifSequenceWriter gifWriter = null;
+        if ("gif".equals(mConfig.format)) {
+            File parent = mConfig.out.getAbsoluteFile().getParentFile();
+            if (parent != null && !parent.isDirectory() && !parent.mkdirs()) {
+                throw new IOException("Cannot create " + parent);
+            }
+            gifWriter = new GifSequenceWriter(mConfig.out, image.getType(), frameNanos / 1000000L);
+        } else if ("png".equals(mConfig.format)) {
+            if (!mConfig.out.isDirectory() && !mConfig.out.mkdirs()) {
+                throw new IOException("Cannot create " + mConfig.out);
+            }
+        } else {
+            throw new IllegalArgumentException("Unknown format " + mConfig.format);
+        }
+
+        long renderNanos = 0;
+        try {
+            for (int i = 0; i < frameCount; i++) {
+                long startNanos = System.nanoTime();
+                long loopNanos = i * frameNanos;
+                renderFrame(firstFrameNanos + loopNanos, (float) (-loopDrift * loopNanos / durationNanos));
+                renderNanos += System.nanoTime() - startNanos;
+
+                image.setRGB(0, 0, mConfig.size, mConfig.size, mRasterizer.getPixels(), 0, mConfig.size);
+                if (gifWriter != null) {
+                    gifWriter.write(image);
+                } else {
+                    ImageIO.write(image, "png", new File(mConfig.out, String.format(Locale.US, "frame_%04d.png", i)));
+                }
+            }
+        } finally {
+            if (gifWriter != null) {
+                gifWriter.close();
+            }
+        }
+
+        System.out.println(String.format(Locale.US, "%d frames, %.1f us rasterizing per frame",
+                frameCount, frameCount > 0 ? renderNanos / 1000.0 / frameCount : 0.0));
+    }
+
+    /**
+     * Same geometry as the drawable with bounds of {@code size} x {@code size}
+     *
+     * @param angleCorrection degrees added to the start angle
+     */
+    void renderFrame(long elapsedNanos, float angleCorrection) {
+        ArcFrameModel.compute(mSpec, elapsedNanos, ArcFrameModel.NOT_ENDING, mFrame);
+        float center = mConfig.size / 2f;
+        mRasterizer.clear(mConfig.background);
+        mRasterizer.drawArc(center, center, mConfig.getDiameter() / 2, mFrame.startAngle + angleCorrection, mFrame.sweepAngle);
+    }
+
+    /**
+     * Every sweep cycle repeats the same sweep, only its start angle moves by {@link #cycleDrift(ArcSpec)}. The true
+     * period is reached once the drift adds up to whole turns, which takes up to hundreds of cycles (180 with the
+     * defaults) or never happens with stroke adjusted angles. The loop is therefore the fewest cycles, up to
+     * {@link #MAX_LOOP_CYCLES}, whose drift is within {@link #LOOP_TOLERANCE_DEGREES} of whole turns, or the
+     * closest. The exporter spreads the remaining drift over the loop as a slight rotation, so it has no jump.
+     */
+    static int loopCycles(ArcSpec spec) {
+        double drift = cycleDrift(spec);
+        int bestCycles = 1;
+        double bestMismatch = Double.MAX_VALUE;
+        for (int cycles = 1; cycles <= MAX_LOOP_CYCLES; cycles++) {
+            double mismatch = Math.abs(signedAngle(cycles * drift));
+            if (mismatch <= LOOP_TOLERANCE_DEGREES) {
+                return cycles;
+            } else if (mismatch < bestMismatch) {
+                bestCycles = cycles;
+                bestMismatch = mismatch;
+            }
+        }
+        return bestCycles;
+    }
+
+    /**
+     * @return degrees the start angle moves from one sweep cycle to the next: the rotation over the cycle, minus
+     * the {@code 360 - max + min} the sweep moves the arc back by
+     */
+    static double cycleDrift(ArcSpec spec) {
+        long cycleNanos = spec.getSweepDurationNanos() * 2;
+        double rotation = spec.isRotation() && spec.getRotationDurationNanos() > 0
+                ? cycleNanos * 360.0 / spec.getRotationDurationNanos()
+                : 0;
+        return rotation - (360.0 - spec.getMaxSweepAngle() + spec.getMinSweepAngle());
+    }
+
+    /**
+     * @return the angle in (-180, 180]
+     */
+    private static double signedAngle(double angle) {
+        double wrapped = angle % 360;
+        if (wrapped > 180) {
+            wrapped -= 360;
+        } else if (wrapped <= -180) {
+            wrapped += 360;
+        }
+        return wrapped;
+    }
+}
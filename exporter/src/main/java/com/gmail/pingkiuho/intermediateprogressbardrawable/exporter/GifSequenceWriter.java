@@ -0,0 +1,80 @@
+package com.gmail.pingkiuho.intermediateprogressbardrawable.exporter;
+
+import java.awt.image.BufferedImage;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageTypeSpecifier;
+import javax.imageio.ImageWriter;
+import javax.imageio.metadata.IIOMetadata;
+import javax.imageio.metadata.IIOMetadataNode;
+import javax.imageio.stream.ImageOutputStream;
+
+/**
+ * Looping animated GIF through the JDK's ImageIO GIF writer.
+ * GIF delays are in 1/100 s and transparency is 1 bit, so use PNG frames for exact comparisons.
+ */
+class GifSequenceWriter implements Closeable {
+    private static final String METADATA_FORMAT = "javax_imageio_gif_image_1.0";
+
+    private final ImageOutputStream mOutput;
+    private final ImageWriter mWriter;
+    private final IIOMetadata mMetadata;
+
+    GifSequenceWriter(File file, int imageType, long frameDelayMs) throws IOException {
+        Iterator<ImageWriter> writers = ImageIO.getImageWritersBySuffix("gif");
+        if (!writers.hasNext()) {
+            throw new IOException("No GIF writer available");
+        }
+        mWriter = writers.next();
+        mMetadata = mWriter.getDefaultImageMetadata(ImageTypeSpecifier.createFromBufferedImageType(imageType),
+                mWriter.getDefaultWriteParam());
+
+        IIOMetadataNode root = (IIOMetadataNode) mMetadata.getAsTree(METADATA_FORMAT);
+
+        IIOMetadataNode control = getNode(root, "GraphicControlExtension");
+        control.setAttribute("disposalMethod", "restoreToBackgroundColor");
+        control.setAttribute("userInputFlag", "FALSE");
+        control.setAttribute("transparentColorFlag", "FALSE");
+        control.setAttribute("delayTime", Long.toString(Math.max(1, Math.round(frameDelayMs / 10.0))));
+        control.setAttribute("transparentColorIndex", "0");
+
+        IIOMetadataNode application = new IIOMetadataNode("ApplicationExtension");
+        application.setAttribute("applicationID", "NETSCAPE");
+        application.setAttribute("authenticationCode", "2.0");
+        // loop forever
+        application.setUserObject(new byte[]{0x1, 0x0, 0x0});
+        getNode(root, "ApplicationExtensions").appendChild(application);
+
+        mMetadata.setFromTree(METADATA_FORMAT, root);
+
+        mOutput = ImageIO.createImageOutputStream(file);
+        mWriter.setOutput(mOutput);
+        mWriter.prepareWriteSequence(null);
+    }
+
+    void write(BufferedImage image) throws IOException {
+        mWriter.writeToSequence(new IIOImage(image, null, mMetadata), mWriter.getDefaultWriteParam());
+    }
+
+    @Override
+    public void close() throws IOException {
+        mWriter.endWriteSequence();
+        mOutput.close();
+    }
+
+    private static IIOMetadataNode getNode(IIOMetadataNode root, String name) {
+        for (int i = 0; i < root.getLength(); i++) {
+            if (root.item(i).getNodeName().equalsIgnoreCase(name)) {
+                return (IIOMetadataNode) root.item(i);
+            }
+        }
+        IIOMetadataNode node = new IIOMetadataNode(name);
+        root.appendChild(node);
+        return node;
+    }
+}